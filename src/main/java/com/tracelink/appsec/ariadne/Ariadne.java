@@ -17,14 +17,23 @@ OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
 package com.tracelink.appsec.ariadne;
 
 import com.tracelink.appsec.ariadne.analyze.Analyzer;
+import com.tracelink.appsec.ariadne.analyze.TierState;
 import com.tracelink.appsec.ariadne.cli.AriadneCLI;
+import com.tracelink.appsec.ariadne.read.dependency.CachingDependencyReader;
 import com.tracelink.appsec.ariadne.read.dependency.DependencyReader;
 import com.tracelink.appsec.ariadne.read.vulnerability.VulnerabilityReader;
+import com.tracelink.appsec.ariadne.write.SnapshotWriter;
 import com.tracelink.appsec.ariadne.write.Writer;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Ariadne {
     public static void main(String[] args) {
@@ -36,26 +45,98 @@ public class Ariadne {
         }
 
         DependencyReader dependencyReader = cli.getDependencyReader();
+        CachingDependencyReader dependencyCache = cli.getDependencyCache();
         VulnerabilityReader vulnerabilityReader = cli.getVulnerabilityReader();
         Analyzer analyzer = cli.getAnalyzer();
         Writer writer = cli.getWriter();
         boolean writeStats = cli.getWriteStats();
+        String incrementalDirectory = cli.getIncrementalDirectory();
+        String snapshotPath = cli.getSnapshotPath();
 
+        // The vulnerabilities do not depend on the dependency graph, so they are read on their own thread while the
+        // dependencies are read into the analyzer
+        ExecutorService executor = Executors.newSingleThreadExecutor();
         try {
-            List<Map.Entry<String, String>> dependencies = dependencyReader.readDependencies();
-            List<Map.Entry<String, Integer>> vulnerabilities = vulnerabilityReader.readVulnerabilities();
-            analyzer.analyzeDependencies(dependencies);
+            AtomicLong vulnerabilityMillis = new AtomicLong();
+            Future<List<Map.Entry<String, Integer>>> vulnerabilityRead = executor.submit(() -> {
+                long start = System.nanoTime();
+                List<Map.Entry<String, Integer>> vulnerabilities = vulnerabilityReader.readVulnerabilities();
+                vulnerabilityMillis.set(millisSince(start));
+                return vulnerabilities;
+            });
+
+            long start = System.nanoTime();
+            analyzer.analyzeDependencies(dependencyReader);
+            if (dependencyCache == null) {
+                printPhase("Dependencies", millisSince(start));
+            } else {
+                printPhase("Dependencies", millisSince(start), String.format("%d file(s) cached, %d read, %d removed",
+                        dependencyCache.getHits(), dependencyCache.getMisses(), dependencyCache.getRemoved()));
+            }
+            if (snapshotPath != null) {
+                start = System.nanoTime();
+                new SnapshotWriter(snapshotPath)
+                        .write(analyzer.getDependencyGraph(), analyzer.getInternalIdentifiers());
+                printPhase("Snapshot", millisSince(start));
+            }
+            start = System.nanoTime();
+            List<Map.Entry<String, Integer>> vulnerabilities = await(vulnerabilityRead);
+            // Time spent waiting here is the part of the vulnerability read that did not overlap
+            printPhase("Waiting for vulnerabilities", millisSince(start));
+            printPhase("Vulnerabilities", vulnerabilityMillis.get());
             analyzer.analyzeVulnerabilities(vulnerabilities);
-            analyzer.analyzeTiers();
+
+            start = System.nanoTime();
+            if (incrementalDirectory == null) {
+                analyzer.analyzeTiers();
+            } else {
+                analyzer.analyzeTiers(TierState.readFrom(new File(incrementalDirectory, TierState.FILE_NAME)));
+            }
+            printPhase("Tiers", millisSince(start));
+
+            start = System.nanoTime();
             writer.setArtifacts(analyzer.getArtifacts());
             if (writeStats) {
                 writer.writeDependencies();
                 writer.writeVulnerabilities();
             }
             writer.writeTiers();
+            if (incrementalDirectory != null) {
+                analyzer.getTierState().writeTo(new File(incrementalDirectory, TierState.FILE_NAME));
+            }
+            printPhase("Output", millisSince(start));
         } catch (IOException e) {
             System.out.println("ERROR: Exception occurred. " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            // Stops the vulnerability read if the dependencies could not be read
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading vulnerabilities", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
         }
     }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static void printPhase(String phase, long millis) {
+        System.out.println(String.format("* Phase %s: %d ms", phase, millis));
+    }
+
+    private static void printPhase(String phase, long millis, String details) {
+        System.out.println(String.format("* Phase %s: %d ms (%s)", phase, millis, details));
+    }
 }
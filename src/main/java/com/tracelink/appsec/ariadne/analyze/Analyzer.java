@@ -17,40 +17,96 @@ OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
 package com.tracelink.appsec.ariadne.analyze;
 
 import com.tracelink.appsec.ariadne.model.Artifact;
-import com.tracelink.appsec.ariadne.model.ExternalArtifact;
-import com.tracelink.appsec.ariadne.model.InternalArtifact;
-import com.tracelink.appsec.ariadne.utils.Utils;
+import com.tracelink.appsec.ariadne.model.Coordinate;
+import com.tracelink.appsec.ariadne.model.CoordinateTable;
+import com.tracelink.appsec.ariadne.model.DependencyGraph;
+import com.tracelink.appsec.ariadne.model.GraphView;
+import com.tracelink.appsec.ariadne.read.dependency.DependencyReader;
+import com.tracelink.appsec.ariadne.read.dependency.SnapshotReader;
+import com.tracelink.appsec.ariadne.utils.IdentifierMatcher;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 
 public class Analyzer {
     private List<String> internalIdentifiers;
-    private Map<String, Artifact> artifacts = new TreeMap<>();
+    private IdentifierMatcher internalMatcher;
+    private int threads;
+    // The graph that dependencies are added to, null once a snapshot has been mapped in its place
+    private DependencyGraph builder = new DependencyGraph();
+    private GraphView graph = builder;
+    private CoordinateTable coordinates = new CoordinateTable();
+    private TierEngine tierEngine;
 
     public Analyzer(List<String> internalIdentifiers) {
+        this(internalIdentifiers, 1);
+    }
+
+    public Analyzer(List<String> internalIdentifiers, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive - " + threads);
+        }
         this.internalIdentifiers = internalIdentifiers;
+        this.internalMatcher = new IdentifierMatcher(internalIdentifiers);
+        this.threads = threads;
+    }
+
+    public List<String> getInternalIdentifiers() {
+        return Collections.unmodifiableList(internalIdentifiers);
+    }
+
+    public GraphView getDependencyGraph() {
+        return graph;
     }
 
     public List<Artifact> getArtifacts() {
-        return Collections.unmodifiableList(new ArrayList<>(artifacts.values()));
+        return Collections.unmodifiableList(graph.getArtifacts());
     }
 
     public void analyzeDependencies(List<Map.Entry<String, String>> dependencies) {
+        DependencyGraph dependencyGraph = getBuilder();
         for (Map.Entry<String, String> dependency : dependencies) {
-            // Get parent and child names
-            String parent = dependency.getKey();
-            String child = dependency.getValue();
-            // Get parent and child artifacts
-            Artifact parentArtifact = getArtifactForName(parent);
-            Artifact childArtifact = getArtifactForName(child);
-            // Add parent artifact to child artifact and vice versa
-            childArtifact.addParent(Utils.getVersion(child), parentArtifact);
-            parentArtifact.addChild(Utils.getVersion(parent), childArtifact);
+            analyzeDependency(dependency.getKey(), dependency.getValue());
+        }
+        // Ingestion is finished, so compact the adjacency lists
+        dependencyGraph.freeze();
+    }
+
+    public void analyzeDependencies(DependencyReader dependencyReader) throws IOException {
+        if (dependencyReader instanceof SnapshotReader) {
+            // A snapshot already holds the analyzed graph and is traversed in place
+            SnapshotReader snapshotReader = (SnapshotReader) dependencyReader;
+            graph = snapshotReader.readGraph();
+            builder = null;
+            if (!snapshotReader.getInternalIdentifiers().equals(internalIdentifiers)) {
+                System.out.println("WARNING: Internal identifiers differ from the snapshot, using its classification");
+            }
+            return;
+        }
+        // Take dependencies as the reader finds them, so the raw edge list is never held in memory
+        DependencyGraph dependencyGraph = getBuilder();
+        dependencyReader.readDependencies(this::analyzeDependency);
+        dependencyGraph.freeze();
+    }
+
+    private DependencyGraph getBuilder() {
+        if (builder == null) {
+            throw new IllegalStateException("Cannot add dependencies to a dependency snapshot");
         }
+        return builder;
+    }
+
+    private void analyzeDependency(String parent, String child) {
+        Coordinate parentCoordinate = coordinates.get(parent);
+        Coordinate childCoordinate = coordinates.get(child);
+        // Get parent and child artifacts
+        Artifact parentArtifact = getArtifactForName(parentCoordinate);
+        Artifact childArtifact = getArtifactForName(childCoordinate);
+        // Add parent artifact to child artifact and vice versa
+        childArtifact.addParent(childCoordinate.getVersion(), parentArtifact);
+        parentArtifact.addChild(parentCoordinate.getVersion(), childArtifact);
     }
 
     public void analyzeVulnerabilities(List<Map.Entry<String, Integer>> vulnerabilities) {
@@ -58,7 +114,12 @@ public class Analyzer {
             String fullName = vulnerability.getKey();
             Integer findings = vulnerability.getValue();
 
-            Artifact artifact = getArtifactForName(fullName);
+            Artifact artifact = getArtifactForName(coordinates.get(fullName));
+            if (artifact == null) {
+                // A snapshot cannot take new artifacts, and an artifact it does not hold has no dependents anyway
+                System.out.println(String.format("WARNING: Vulnerability not found: %s", fullName));
+                continue;
+            }
             if (artifact.getConnections() == 0) {
                 System.out.println(String.format("WARNING: Vulnerability not found: %s", artifact.getName()));
             }
@@ -66,43 +127,51 @@ public class Analyzer {
         }
     }
 
-    private Artifact getArtifactForName(String fullName) {
-        // Parse useful data from dependency full name
-        String artifactName = Utils.getArtifactName(fullName);
-        String version = Utils.getVersion(fullName);
+    private Artifact getArtifactForName(Coordinate coordinate) {
+        String artifactName = coordinate.getArtifactName();
 
-        Artifact artifact;
-        if (artifacts.containsKey(fullName)) {
+        Artifact artifact = graph.getArtifact(coordinate.getFullName());
+        if (artifact != null) {
             // We have already stored this external artifact
-            artifact = artifacts.get(fullName);
-        } else if (artifacts.containsKey(artifactName)) {
+            return artifact;
+        }
+        artifact = graph.getArtifact(artifactName);
+        if (artifact != null) {
             // We have already stored this internal artifact
-            artifact = artifacts.get(artifactName);
-            artifact.addVersion(version);
-        } else if (internalIdentifiers.stream().anyMatch(artifactName::contains)) {
+            artifact.addVersion(coordinate.getVersion());
+        } else if (builder == null) {
+            return null;
+        } else if (internalMatcher.matchesArtifact(artifactName)) {
             // New internal artifact
-            artifact = new InternalArtifact(fullName);
-            artifacts.put(artifactName, artifact);
+            artifact = builder.addInternalArtifact(coordinate);
         } else {
             // New external artifact
-            artifact = new ExternalArtifact(fullName);
-            artifacts.put(fullName, artifact);
+            artifact = builder.addExternalArtifact(coordinate);
         }
         return artifact;
     }
 
     public void analyzeTiers() {
-        // Identify cycles to prevent addition of extra tiers
-        for (Artifact artifact : artifacts.values()) {
-            if (artifact instanceof InternalArtifact) {
-                artifact.findCycles(new ArrayList<>());
-            }
-        }
+        analyzeTiers(null);
+    }
+
+    public void analyzeTiers(TierState previousState) {
         // Assign tiers to internal artifacts affected by vulnerable external artifacts
-        for (Artifact artifact : artifacts.values()) {
-            if (artifact.isVulnerable()) {
-                artifact.assignTiers();
-            }
+        tierEngine = new TierEngine(graph, TierEngine.DEFAULT_CHUNK_SIZE, threads);
+        if (previousState == null) {
+            tierEngine.assignTiers();
+        } else if (!previousState.getInternalIdentifiers().equals(internalIdentifiers)) {
+            System.out.println("WARNING: Internal identifiers changed, reanalyzing all tiers");
+            tierEngine.assignTiers();
+        } else {
+            tierEngine.assignTiers(previousState);
+        }
+    }
+
+    public TierState getTierState() {
+        if (tierEngine == null) {
+            throw new IllegalStateException("Tiers have not been analyzed");
         }
+        return tierEngine.captureState(internalIdentifiers);
     }
 }
@@ -0,0 +1,88 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.analyze;
+
+import com.tracelink.appsec.ariadne.utils.CompressedBitSet;
+import com.tracelink.appsec.ariadne.utils.IntList;
+
+// For a range of vulnerable roots, records which of them reach each component without leaving tier zero. Bit i of a
+// set stands for the root at position (from + i). Sets are pushed from children to parents in topological order, and
+// only external artifacts pass them on to other components.
+class ReachabilityIndex {
+    private IntList roots;
+    private int from;
+    private CompressedBitSet[] reachable;
+    private long memoryUsage = 0;
+
+    ReachabilityIndex(UpgradeGraph upgrades, StronglyConnectedComponents components, boolean[] internal,
+                      IntList roots, int from, int to) {
+        this.roots = roots;
+        this.from = from;
+        int count = components.getComponentCount();
+        reachable = new CompressedBitSet[count];
+        for (int component = 0; component < count; component++) {
+            reachable[component] = CompressedBitSet.EMPTY;
+        }
+        for (int i = from; i < to; i++) {
+            int component = components.getComponent(roots.get(i));
+            CompressedBitSet root = CompressedBitSet.of(i - from);
+            memoryUsage += root.getMemoryUsage();
+            reachable[component] = union(reachable[component], root);
+        }
+
+        for (int component = count - 1; component >= 0; component--) {
+            CompressedBitSet set = reachable[component];
+            if (set.isEmpty()) {
+                continue;
+            }
+            for (int m = 0; m < components.getMemberCount(component); m++) {
+                int child = components.getMember(component, m);
+                // Leaving an internal artifact's cycle always moves to a higher tier
+                if (internal[child]) {
+                    continue;
+                }
+                for (int i = 0; i < upgrades.getParentCount(child); i++) {
+                    int parentComponent = components.getComponent(upgrades.getParent(child, i));
+                    if (parentComponent != component) {
+                        reachable[parentComponent] = union(reachable[parentComponent], set);
+                    }
+                }
+            }
+        }
+    }
+
+    CompressedBitSet getRoots(int component) {
+        return reachable[component];
+    }
+
+    int getRoot(int bit) {
+        return roots.get(from + bit);
+    }
+
+    long getMemoryUsage() {
+        // One reference per component plus every set allocated by a union
+        return memoryUsage + 8L * reachable.length;
+    }
+
+    private CompressedBitSet union(CompressedBitSet current, CompressedBitSet added) {
+        CompressedBitSet result = current.or(added);
+        if (result != current && result != added) {
+            memoryUsage += result.getMemoryUsage();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.analyze;
+
+import java.util.Arrays;
+
+// Iterative version of Tarjan's algorithm over the upgrade graph. Components are numbered in the order they are
+// completed, so every parent component has a lower number than the components of its children.
+class StronglyConnectedComponents {
+    private int[] components;
+    private int count = 0;
+    private int[] memberOffsets;
+    private int[] members;
+
+    StronglyConnectedComponents(UpgradeGraph graph) {
+        int size = graph.size();
+        components = new int[size];
+        Arrays.fill(components, -1);
+
+        int[] index = new int[size];
+        Arrays.fill(index, -1);
+        int[] low = new int[size];
+        int[] cursor = new int[size];
+        // Nodes waiting to be assigned to a component
+        int[] stack = new int[size];
+        int stackSize = 0;
+        // Explicit call stack so that deep dependency chains cannot overflow the thread stack
+        int[] calls = new int[size];
+        int callsSize = 0;
+        int counter = 0;
+
+        for (int start = 0; start < size; start++) {
+            if (index[start] != -1) {
+                continue;
+            }
+            index[start] = low[start] = counter++;
+            stack[stackSize++] = start;
+            calls[callsSize++] = start;
+
+            while (callsSize > 0) {
+                int node = calls[callsSize - 1];
+                if (cursor[node] < graph.getParentCount(node)) {
+                    int parent = graph.getParent(node, cursor[node]++);
+                    if (index[parent] == -1) {
+                        // Descend into the parent
+                        index[parent] = low[parent] = counter++;
+                        stack[stackSize++] = parent;
+                        calls[callsSize++] = parent;
+                    } else if (components[parent] == -1) {
+                        // The parent is still on the stack, so it is part of the current cycle
+                        low[node] = Math.min(low[node], index[parent]);
+                    }
+                    continue;
+                }
+
+                // All parents visited, return to the caller
+                callsSize--;
+                if (callsSize > 0) {
+                    int caller = calls[callsSize - 1];
+                    low[caller] = Math.min(low[caller], low[node]);
+                }
+                if (low[node] == index[node]) {
+                    // The node is the root of a component, pop all of its members
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        components[member] = count;
+                    } while (member != node);
+                    count++;
+                }
+            }
+        }
+
+        // Group the members of each component together
+        memberOffsets = new int[count + 1];
+        for (int id = 0; id < size; id++) {
+            memberOffsets[components[id] + 1]++;
+        }
+        for (int component = 0; component < count; component++) {
+            memberOffsets[component + 1] += memberOffsets[component];
+        }
+        members = new int[size];
+        int[] memberCursor = Arrays.copyOf(memberOffsets, count);
+        for (int id = 0; id < size; id++) {
+            members[memberCursor[components[id]]++] = id;
+        }
+    }
+
+    int getComponent(int id) {
+        return components[id];
+    }
+
+    int getComponentCount() {
+        return count;
+    }
+
+    int getMemberCount(int component) {
+        return memberOffsets[component + 1] - memberOffsets[component];
+    }
+
+    int getMember(int component, int index) {
+        return members[memberOffsets[component] + index];
+    }
+}
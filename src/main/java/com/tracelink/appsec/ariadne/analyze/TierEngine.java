@@ -0,0 +1,375 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.analyze;
+
+import com.tracelink.appsec.ariadne.model.Artifact;
+import com.tracelink.appsec.ariadne.model.GraphView;
+import com.tracelink.appsec.ariadne.utils.CompressedBitSet;
+import com.tracelink.appsec.ariadne.utils.IntList;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Assigns tiers by condensing cycles and taking the longest path from any vulnerable artifact over the resulting DAG.
+// Crossing from an internal artifact to a parent outside of its cycle adds one tier, all other edges add nothing.
+class TierEngine {
+    // Number of vulnerable roots tracked by a single reachability index
+    static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private GraphView graph;
+    private int chunkSize;
+    private int threads;
+    private UpgradeGraph upgrades;
+    private StronglyConnectedComponents components;
+    private boolean[] internal;
+    private IntList roots = new IntList();
+    // Artifacts whose results are recomputed, null when every artifact is
+    private boolean[] affected;
+
+    TierEngine(GraphView graph) {
+        this(graph, DEFAULT_CHUNK_SIZE, 1);
+    }
+
+    TierEngine(GraphView graph, int chunkSize, int threads) {
+        this.graph = graph;
+        this.chunkSize = chunkSize;
+        this.threads = threads;
+        this.upgrades = new UpgradeGraph(graph);
+        this.components = new StronglyConnectedComponents(upgrades);
+        this.internal = new boolean[graph.size()];
+        for (int id = 0; id < graph.size(); id++) {
+            Artifact artifact = graph.getArtifact(id);
+            internal[id] = graph.isInternal(id);
+            if (artifact.isVulnerable()) {
+                roots.add(id);
+            }
+        }
+    }
+
+    void assignTiers() {
+        TierResult result;
+        if (threads > 1 && roots.size() > 1) {
+            // Split the roots across the workers, each one builds its own partial result
+            int rootsPerTask = (roots.size() + threads - 1) / threads;
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                result = pool.invoke(new TierTask(0, roots.size(), rootsPerTask));
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            result = computeResult(0, roots.size());
+        }
+
+        for (int id = 0; id < graph.size(); id++) {
+            Artifact artifact = graph.getArtifact(id);
+            artifact.setComponent(components.getComponent(id));
+            int tier = result.longest[components.getComponent(id)];
+            if (internal[id] && tier >= 0 && isAffected(id)) {
+                artifact.setTier(tier);
+            }
+        }
+        assignInternalUpgrades(result.longest);
+        for (int i = 0; i < result.upgradeParents.size(); i++) {
+            graph.getArtifact(result.upgradeParents.get(i)).addExternalUpgrade(
+                    graph.getName(result.upgradeChildren.get(i)), graph.getName(result.upgradeRoots.get(i)));
+        }
+        if (result.chunks > 0) {
+            System.out.println(String.format("* Reachability Index: %d roots in %d chunk(s), %d KB",
+                    roots.size(), result.chunks, (result.peakMemory + 1023) / 1024));
+        }
+    }
+
+    // Recomputes only the artifacts whose upgrade paths changed since the previous state and restores the rest
+    void assignTiers(TierState previous) {
+        affected = findAffected(previous);
+        // Only roots below an affected artifact can contribute to its results
+        boolean[] scope = findDescendants(affected);
+        IntList scopedRoots = new IntList();
+        for (int i = 0; i < roots.size(); i++) {
+            if (scope[roots.get(i)]) {
+                scopedRoots.add(roots.get(i));
+            }
+        }
+        int affectedCount = 0;
+        for (boolean recompute : affected) {
+            affectedCount += recompute ? 1 : 0;
+        }
+        System.out.println(String.format("* Incremental: %d of %d artifact(s) affected, %d of %d root(s) in scope",
+                affectedCount, graph.size(), scopedRoots.size(), roots.size()));
+        roots = scopedRoots;
+        assignTiers();
+        previous.restore(graph, affected);
+    }
+
+    TierState captureState(List<String> internalIdentifiers) {
+        TierState state = new TierState(internalIdentifiers);
+        for (int child = 0; child < graph.size(); child++) {
+            for (int i = 0; i < upgrades.getParentCount(child); i++) {
+                state.addEdge(graph.getName(child), graph.getName(upgrades.getParent(child, i)));
+            }
+        }
+        for (int id = 0; id < graph.size(); id++) {
+            Artifact artifact = graph.getArtifact(id);
+            if (artifact.isVulnerable()) {
+                state.addRoot(artifact.getName());
+            }
+            if (internal[id] && artifact.getTier() >= 0) {
+                state.addResult(artifact);
+            }
+        }
+        return state;
+    }
+
+    private boolean isAffected(int id) {
+        return affected == null || affected[id];
+    }
+
+    // An artifact's results only depend on the upgrade edges and roots below it, so anything above a changed edge or
+    // root is affected
+    private boolean[] findAffected(TierState previous) {
+        boolean[] changed = new boolean[graph.size()];
+        boolean[] matched = new boolean[upgrades.getEdgeCount()];
+        for (int i = 0; i < previous.getEdgeCount(); i++) {
+            int child = findId(previous.getEdgeChild(i));
+            int parent = findId(previous.getEdgeParent(i));
+            if (parent < 0) {
+                continue;
+            }
+            int edge = child < 0 ? -1 : upgrades.indexOf(child, parent);
+            if (edge < 0) {
+                // Removed edge
+                changed[parent] = true;
+            } else {
+                matched[edge] = true;
+            }
+        }
+        for (int child = 0; child < graph.size(); child++) {
+            for (int i = 0; i < upgrades.getParentCount(child); i++) {
+                if (!matched[upgrades.getEdgeIndex(child, i)]) {
+                    // Added edge
+                    changed[upgrades.getParent(child, i)] = true;
+                }
+            }
+        }
+        boolean[] previousRoots = new boolean[graph.size()];
+        for (int i = 0; i < previous.getRootCount(); i++) {
+            int root = findId(previous.getRoot(i));
+            if (root >= 0) {
+                previousRoots[root] = true;
+            }
+        }
+        for (int id = 0; id < graph.size(); id++) {
+            if (previousRoots[id] != graph.getArtifact(id).isVulnerable()) {
+                changed[id] = true;
+            }
+        }
+        return findAncestors(changed);
+    }
+
+    private boolean[] findAncestors(boolean[] seeds) {
+        boolean[] visited = Arrays.copyOf(seeds, seeds.length);
+        IntList stack = new IntList();
+        for (int id = 0; id < seeds.length; id++) {
+            if (seeds[id]) {
+                stack.add(id);
+            }
+        }
+        while (!stack.isEmpty()) {
+            int child = stack.removeLast();
+            for (int i = 0; i < upgrades.getParentCount(child); i++) {
+                int parent = upgrades.getParent(child, i);
+                if (!visited[parent]) {
+                    visited[parent] = true;
+                    stack.add(parent);
+                }
+            }
+        }
+        return visited;
+    }
+
+    private boolean[] findDescendants(boolean[] seeds) {
+        boolean[] visited = Arrays.copyOf(seeds, seeds.length);
+        IntList stack = new IntList();
+        for (int id = 0; id < seeds.length; id++) {
+            if (seeds[id]) {
+                stack.add(id);
+            }
+        }
+        while (!stack.isEmpty()) {
+            int parent = stack.removeLast();
+            for (int i = 0; i < upgrades.getChildCount(parent); i++) {
+                int child = upgrades.getChild(parent, i);
+                if (!visited[child]) {
+                    visited[child] = true;
+                    stack.add(child);
+                }
+            }
+        }
+        return visited;
+    }
+
+    private int findId(String name) {
+        Artifact artifact = graph.getArtifact(name);
+        return artifact == null ? -1 : artifact.getId();
+    }
+
+    private TierResult computeResult(int from, int to) {
+        TierResult result = new TierResult(findLongestPaths(from, to));
+        // Attribute external upgrades a chunk of roots at a time to bound the size of the index
+        for (int chunkFrom = from; chunkFrom < to; chunkFrom += chunkSize) {
+            ReachabilityIndex index = new ReachabilityIndex(upgrades, components, internal, roots, chunkFrom,
+                    Math.min(to, chunkFrom + chunkSize));
+            result.peakMemory = Math.max(result.peakMemory, index.getMemoryUsage());
+            result.chunks++;
+            collectExternalUpgrades(index, result);
+        }
+        return result;
+    }
+
+    private int getWeight(int child, int parent) {
+        // An artifact depending on another version of itself still needs an internal upgrade
+        if (internal[child] && (child == parent
+                || components.getComponent(child) != components.getComponent(parent))) {
+            return 1;
+        }
+        return 0;
+    }
+
+    private int[] findLongestPaths(int from, int to) {
+        int count = components.getComponentCount();
+        int[] longest = new int[count];
+        Arrays.fill(longest, -1);
+        for (int i = from; i < to; i++) {
+            longest[components.getComponent(roots.get(i))] = 0;
+        }
+        // Components are numbered parents first, so walking the numbers backwards is a topological order
+        for (int component = count - 1; component >= 0; component--) {
+            if (longest[component] < 0) {
+                // Not affected by any vulnerability
+                continue;
+            }
+            for (int m = 0; m < components.getMemberCount(component); m++) {
+                int child = components.getMember(component, m);
+                for (int i = 0; i < upgrades.getParentCount(child); i++) {
+                    int parent = upgrades.getParent(child, i);
+                    int parentComponent = components.getComponent(parent);
+                    if (parentComponent != component) {
+                        longest[parentComponent] = Math.max(longest[parentComponent],
+                                longest[component] + getWeight(child, parent));
+                    }
+                }
+            }
+        }
+        return longest;
+    }
+
+    private void assignInternalUpgrades(int[] longest) {
+        for (int child = 0; child < graph.size(); child++) {
+            int tier = longest[components.getComponent(child)];
+            if (tier < 0) {
+                continue;
+            }
+            for (int i = 0; i < upgrades.getParentCount(child); i++) {
+                int parent = upgrades.getParent(child, i);
+                // Some path reaches the parent through this child above tier zero
+                if (internal[parent] && isAffected(parent) && tier + getWeight(child, parent) > 0) {
+                    graph.getArtifact(parent).addInternalUpgrade(graph.getName(child));
+                }
+            }
+        }
+    }
+
+    private void collectExternalUpgrades(ReachabilityIndex index, TierResult result) {
+        for (int child = 0; child < graph.size(); child++) {
+            CompressedBitSet reachingRoots = index.getRoots(components.getComponent(child));
+            if (reachingRoots.isEmpty()) {
+                continue;
+            }
+            for (int i = 0; i < upgrades.getParentCount(child); i++) {
+                int parent = upgrades.getParent(child, i);
+                // Internal parents reached without leaving tier zero upgrade the roots directly
+                if (internal[parent] && isAffected(parent) && getWeight(child, parent) == 0) {
+                    int direct = child;
+                    reachingRoots.forEach(bit -> result.addExternalUpgrade(parent, direct, index.getRoot(bit)));
+                }
+            }
+        }
+    }
+
+    // Longest paths and external upgrades found for a range of vulnerable roots
+    private static class TierResult {
+        private int[] longest;
+        private IntList upgradeParents = new IntList();
+        private IntList upgradeChildren = new IntList();
+        private IntList upgradeRoots = new IntList();
+        private long peakMemory = 0;
+        private int chunks = 0;
+
+        TierResult(int[] longest) {
+            this.longest = longest;
+        }
+
+        void addExternalUpgrade(int parent, int child, int root) {
+            upgradeParents.add(parent);
+            upgradeChildren.add(child);
+            upgradeRoots.add(root);
+        }
+
+        TierResult merge(TierResult other) {
+            for (int component = 0; component < longest.length; component++) {
+                longest[component] = Math.max(longest[component], other.longest[component]);
+            }
+            for (int i = 0; i < other.upgradeParents.size(); i++) {
+                addExternalUpgrade(other.upgradeParents.get(i), other.upgradeChildren.get(i),
+                        other.upgradeRoots.get(i));
+            }
+            peakMemory = Math.max(peakMemory, other.peakMemory);
+            chunks += other.chunks;
+            return this;
+        }
+    }
+
+    private class TierTask extends RecursiveTask<TierResult> {
+        private static final long serialVersionUID = 1L;
+
+        private int from;
+        private int to;
+        private int rootsPerTask;
+
+        TierTask(int from, int to, int rootsPerTask) {
+            this.from = from;
+            this.to = to;
+            this.rootsPerTask = rootsPerTask;
+        }
+
+        @Override
+        protected TierResult compute() {
+            if (to - from <= rootsPerTask) {
+                return computeResult(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            TierTask left = new TierTask(from, middle, rootsPerTask);
+            TierTask right = new TierTask(middle, to, rootsPerTask);
+            right.fork();
+            // Merge in root order so the result does not depend on scheduling
+            return left.compute().merge(right.join());
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.analyze;
+
+import com.tracelink.appsec.ariadne.model.Artifact;
+import com.tracelink.appsec.ariadne.model.GraphView;
+import com.tracelink.appsec.ariadne.model.StringTable;
+import com.tracelink.appsec.ariadne.utils.IntList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// The upgrade edges, vulnerable roots and tier results of a previous run, used to limit the next run to the artifacts
+// whose upgrade paths changed
+public class TierState {
+    public static final String FILE_NAME = "tiers.state";
+
+    private static final int MAGIC = 0x41524454;
+    private static final int VERSION = 1;
+
+    private List<String> internalIdentifiers;
+    private StringTable names = new StringTable();
+    private IntList edgeChildren = new IntList();
+    private IntList edgeParents = new IntList();
+    private IntList roots = new IntList();
+    private List<Result> results = new ArrayList<>();
+
+    TierState(List<String> internalIdentifiers) {
+        this.internalIdentifiers = new ArrayList<>(internalIdentifiers);
+    }
+
+    public List<String> getInternalIdentifiers() {
+        return Collections.unmodifiableList(internalIdentifiers);
+    }
+
+    int getEdgeCount() {
+        return edgeChildren.size();
+    }
+
+    String getEdgeChild(int index) {
+        return names.get(edgeChildren.get(index));
+    }
+
+    String getEdgeParent(int index) {
+        return names.get(edgeParents.get(index));
+    }
+
+    int getRootCount() {
+        return roots.size();
+    }
+
+    String getRoot(int index) {
+        return names.get(roots.get(index));
+    }
+
+    void addEdge(String child, String parent) {
+        edgeChildren.add(names.intern(child));
+        edgeParents.add(names.intern(parent));
+    }
+
+    void addRoot(String root) {
+        roots.add(names.intern(root));
+    }
+
+    void addResult(Artifact artifact) {
+        Result result = new Result(names.intern(artifact.getName()), artifact.getTier());
+        IntList internalUpgrades = new IntList();
+        for (String upgrade : artifact.getInternalUpgrades()) {
+            internalUpgrades.add(names.intern(upgrade));
+        }
+        result.internalUpgrades = internalUpgrades.toArray();
+        Map<String, Set<String>> externalUpgrades = artifact.getExternalUpgrades();
+        result.externalChildren = new int[externalUpgrades.size()];
+        result.externalRoots = new int[externalUpgrades.size()][];
+        int index = 0;
+        for (Map.Entry<String, Set<String>> entry : externalUpgrades.entrySet()) {
+            IntList upgradeRoots = new IntList();
+            for (String root : entry.getValue()) {
+                upgradeRoots.add(names.intern(root));
+            }
+            result.externalChildren[index] = names.intern(entry.getKey());
+            result.externalRoots[index++] = upgradeRoots.toArray();
+        }
+        results.add(result);
+    }
+
+    // Copies the previous results onto artifacts that were not recomputed
+    int restore(GraphView graph, boolean[] affected) {
+        int restored = 0;
+        for (Result result : results) {
+            Artifact artifact = graph.getArtifact(names.get(result.name));
+            if (artifact == null || affected[artifact.getId()] || !graph.isInternal(artifact.getId())) {
+                continue;
+            }
+            artifact.setTier(result.tier);
+            for (int upgrade : result.internalUpgrades) {
+                artifact.addInternalUpgrade(names.get(upgrade));
+            }
+            for (int i = 0; i < result.externalChildren.length; i++) {
+                for (int root : result.externalRoots[i]) {
+                    artifact.addExternalUpgrade(names.get(result.externalChildren[i]), names.get(root));
+                }
+            }
+            restored++;
+        }
+        return restored;
+    }
+
+    public void writeTo(File file) throws IOException {
+        // Write next to the old state and swap it in, so an interrupted run leaves the previous state intact
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(internalIdentifiers.size());
+            for (String identifier : internalIdentifiers) {
+                out.writeUTF(identifier);
+            }
+            out.writeInt(names.size());
+            for (int i = 0; i < names.size(); i++) {
+                out.writeUTF(names.get(i));
+            }
+            writeInts(out, edgeChildren.toArray());
+            writeInts(out, edgeParents.toArray());
+            writeInts(out, roots.toArray());
+            out.writeInt(results.size());
+            for (Result result : results) {
+                out.writeInt(result.name);
+                out.writeInt(result.tier);
+                writeInts(out, result.internalUpgrades);
+                writeInts(out, result.externalChildren);
+                for (int[] upgradeRoots : result.externalRoots) {
+                    writeInts(out, upgradeRoots);
+                }
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Returns null if there is no usable state, in which case every tier is recomputed
+    public static TierState readFrom(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                System.out.println("WARNING: Ignoring tier state with unknown format - " + file.getPath());
+                return null;
+            }
+            List<String> internalIdentifiers = new ArrayList<>();
+            int identifierCount = in.readInt();
+            for (int i = 0; i < identifierCount; i++) {
+                internalIdentifiers.add(in.readUTF());
+            }
+            TierState state = new TierState(internalIdentifiers);
+            int nameCount = in.readInt();
+            for (int i = 0; i < nameCount; i++) {
+                state.names.intern(in.readUTF());
+            }
+            int[] edgeChildren = readInts(in);
+            int[] edgeParents = readInts(in);
+            if (edgeChildren.length != edgeParents.length) {
+                throw new IOException("Mismatched edge lists");
+            }
+            for (int i = 0; i < edgeChildren.length; i++) {
+                state.edgeChildren.add(checkName(state, edgeChildren[i]));
+                state.edgeParents.add(checkName(state, edgeParents[i]));
+            }
+            for (int root : readInts(in)) {
+                state.roots.add(checkName(state, root));
+            }
+            int resultCount = in.readInt();
+            for (int i = 0; i < resultCount; i++) {
+                Result result = new Result(checkName(state, in.readInt()), in.readInt());
+                result.internalUpgrades = checkNames(state, readInts(in));
+                result.externalChildren = checkNames(state, readInts(in));
+                result.externalRoots = new int[result.externalChildren.length][];
+                for (int j = 0; j < result.externalChildren.length; j++) {
+                    result.externalRoots[j] = checkNames(state, readInts(in));
+                }
+                state.results.add(result);
+            }
+            return state;
+        } catch (IOException e) {
+            System.out.println("WARNING: Ignoring unreadable tier state. " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Negative length - " + length);
+        }
+        IntList values = new IntList(Math.min(length, 1 << 16));
+        for (int i = 0; i < length; i++) {
+            values.add(in.readInt());
+        }
+        return values.toArray();
+    }
+
+    private static int checkName(TierState state, int name) throws IOException {
+        if (name < 0 || name >= state.names.size()) {
+            throw new IOException("Unknown name - " + name);
+        }
+        return name;
+    }
+
+    private static int[] checkNames(TierState state, int[] names) throws IOException {
+        for (int name : names) {
+            checkName(state, name);
+        }
+        return names;
+    }
+
+    private static class Result {
+        private int name;
+        private int tier;
+        private int[] internalUpgrades;
+        private int[] externalChildren;
+        private int[][] externalRoots;
+
+        Result(int name, int tier) {
+            this.name = name;
+            this.tier = tier;
+        }
+    }
+}
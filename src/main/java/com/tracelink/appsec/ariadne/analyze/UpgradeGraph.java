@@ -0,0 +1,144 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.analyze;
+
+import com.tracelink.appsec.ariadne.model.GraphView;
+import com.tracelink.appsec.ariadne.utils.IntList;
+
+import java.util.Arrays;
+
+// Child to parent edges that carry an upgrade. An internal parent only counts if the most recent version of the parent
+// still depends on the child, external parents always count.
+class UpgradeGraph {
+    private int size;
+    private int[] offsets;
+    private int[] parents;
+    private int[] childOffsets;
+    private int[] children;
+
+    UpgradeGraph(GraphView graph) {
+        size = graph.size();
+
+        IntList edgeChildren = new IntList();
+        IntList edgeParents = new IntList();
+        int[] latestSlots = new int[size];
+        for (int id = 0; id < size; id++) {
+            latestSlots[id] = graph.isInternal(id) ? graph.getLatestSlot(id) : -1;
+        }
+        for (int slot = 0; slot < graph.getSlotCount(); slot++) {
+            int child = graph.getNode(slot);
+            for (int i = 0; i < graph.getParentCount(slot); i++) {
+                int parent = graph.getParent(slot, i);
+                if (latestSlots[parent] == -1 || graph.hasChild(latestSlots[parent], child)) {
+                    edgeChildren.add(child);
+                    edgeParents.add(parent);
+                }
+            }
+        }
+
+        // Bucket edges by child, dropping parents reached through more than one version of the child
+        offsets = new int[size + 1];
+        for (int i = 0; i < edgeChildren.size(); i++) {
+            offsets[edgeChildren.get(i) + 1]++;
+        }
+        for (int id = 0; id < size; id++) {
+            offsets[id + 1] += offsets[id];
+        }
+        int[] cursor = Arrays.copyOf(offsets, size);
+        parents = new int[edgeChildren.size()];
+        for (int i = 0; i < edgeChildren.size(); i++) {
+            parents[cursor[edgeChildren.get(i)]++] = edgeParents.get(i);
+        }
+        int[] seen = new int[size];
+        int write = 0;
+        int start = 0;
+        for (int id = 0; id < size; id++) {
+            int end = offsets[id + 1];
+            offsets[id] = write;
+            for (int i = start; i < end; i++) {
+                if (seen[parents[i]] != id + 1) {
+                    seen[parents[i]] = id + 1;
+                    parents[write++] = parents[i];
+                }
+            }
+            start = end;
+        }
+        offsets[size] = write;
+        parents = Arrays.copyOf(parents, write);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getEdgeCount() {
+        return parents.length;
+    }
+
+    int getParentCount(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    int getParent(int id, int index) {
+        return parents[offsets[id] + index];
+    }
+
+    int getEdgeIndex(int id, int index) {
+        return offsets[id] + index;
+    }
+
+    int indexOf(int child, int parent) {
+        for (int i = offsets[child]; i < offsets[child + 1]; i++) {
+            if (parents[i] == parent) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    int getChildCount(int id) {
+        transpose();
+        return childOffsets[id + 1] - childOffsets[id];
+    }
+
+    int getChild(int id, int index) {
+        transpose();
+        return children[childOffsets[id] + index];
+    }
+
+    // Parent to child rows are only needed by incremental runs, so they are built on first use
+    private void transpose() {
+        if (children != null) {
+            return;
+        }
+        childOffsets = new int[size + 1];
+        for (int parent : parents) {
+            childOffsets[parent + 1]++;
+        }
+        for (int id = 0; id < size; id++) {
+            childOffsets[id + 1] += childOffsets[id];
+        }
+        int[] cursor = Arrays.copyOf(childOffsets, size);
+        int[] transposed = new int[parents.length];
+        for (int child = 0; child < size; child++) {
+            for (int i = offsets[child]; i < offsets[child + 1]; i++) {
+                transposed[cursor[parents[i]]++] = child;
+            }
+        }
+        children = transposed;
+    }
+}
@@ -17,10 +17,14 @@ OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
 package com.tracelink.appsec.ariadne.cli;
 
 import com.tracelink.appsec.ariadne.analyze.Analyzer;
+import com.tracelink.appsec.ariadne.read.dependency.CachingDependencyReader;
 import com.tracelink.appsec.ariadne.read.dependency.DependencyReader;
 import com.tracelink.appsec.ariadne.read.dependency.DependencyReaderType;
 import com.tracelink.appsec.ariadne.read.dependency.MavenDependencyTreeReader;
+import com.tracelink.appsec.ariadne.read.dependency.ParallelDependencyReader;
+import com.tracelink.appsec.ariadne.read.dependency.PomDependencyReader;
 import com.tracelink.appsec.ariadne.read.dependency.PomExplorerReader;
+import com.tracelink.appsec.ariadne.read.dependency.SnapshotReader;
 import com.tracelink.appsec.ariadne.read.vulnerability.NexusIQViolationsReader;
 import com.tracelink.appsec.ariadne.read.vulnerability.VulnerabilityReader;
 import com.tracelink.appsec.ariadne.read.vulnerability.VulnerabilityReaderType;
@@ -35,14 +39,18 @@ import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 
+import java.io.File;
 import java.util.Arrays;
 
 public class AriadneCLI {
     private DependencyReader dependencyReader;
+    private CachingDependencyReader dependencyCache;
     private VulnerabilityReader vulnerabilityReader;
     private Analyzer analyzer;
     private Writer writer;
     private boolean writeStats;
+    private String incrementalDirectory;
+    private String snapshotPath;
 
     private Options options;
 
@@ -79,6 +87,50 @@ public class AriadneCLI {
                 .desc("Indicates that additional stats should be written to the output directory")
                 .longOpt("stats")
                 .build();
+        Option threadsOption = Option.builder("t")
+                .required(false)
+                .desc("The number of threads used to assign tiers, defaults to 1")
+                .longOpt("threads")
+                .hasArg()
+                .build();
+        Option readThreadsOption = Option.builder("r")
+                .required(false)
+                .desc("The number of threads used to read dependency files, defaults to 1. Does not apply to "
+                        + "'-d pom', which shares parsed POMs between projects")
+                .longOpt("read-threads")
+                .hasArg()
+                .build();
+        Option incrementalOption = Option.builder("n")
+                .required(false)
+                .desc("Keeps state in the given directory and only reanalyzes what changed since the previous run")
+                .longOpt("incremental")
+                .hasArg()
+                .build();
+        Option cacheOption = Option.builder("c")
+                .required(false)
+                .desc("Caches the dependencies read from each file in the given directory, defaults to the incremental "
+                        + "directory")
+                .longOpt("cache")
+                .hasArg()
+                .build();
+        Option snapshotOption = Option.builder("p")
+                .required(false)
+                .desc("Writes a snapshot of the dependency graph to the given file, to be read with '-d snapshot'")
+                .longOpt("snapshot")
+                .hasArg()
+                .build();
+        Option skipVerifyOption = Option.builder()
+                .required(false)
+                .desc("Opens the snapshot given with '-d snapshot' without comparing it with its checksum")
+                .longOpt("skip-verify")
+                .build();
+        Option repositoryOption = Option.builder("m")
+                .required(false)
+                .desc("The local Maven repository used to resolve dependencies with '-d pom', defaults to "
+                        + "~/.m2/repository")
+                .longOpt("repository")
+                .hasArg()
+                .build();
 
 
         options = new Options();
@@ -87,6 +139,13 @@ public class AriadneCLI {
         options.addOption(writerOption);
         options.addOption(idOption);
         options.addOption(statsOption);
+        options.addOption(threadsOption);
+        options.addOption(readThreadsOption);
+        options.addOption(incrementalOption);
+        options.addOption(cacheOption);
+        options.addOption(snapshotOption);
+        options.addOption(skipVerifyOption);
+        options.addOption(repositoryOption);
     }
 
     public boolean parseArgs(String[] args) {
@@ -109,7 +168,44 @@ public class AriadneCLI {
                 case POM_EXPLORER:
                     dependencyReader = new PomExplorerReader(depOptionValues[1]);
                     break;
+                case SNAPSHOT:
+                    dependencyReader = new SnapshotReader(depOptionValues[1], !commandLine.hasOption("skip-verify"));
+                    break;
+                case POM:
+                    dependencyReader = new PomDependencyReader(depOptionValues[1],
+                            commandLine.getOptionValue("m", PomDependencyReader.getDefaultRepository()));
+                    break;
+            }
+            // A snapshot is loaded as a whole, there are no dependency files to read in parallel or cache
+            boolean readsFiles = dependencyReaderType != DependencyReaderType.SNAPSHOT;
+            // Read dependency files in parallel. The POM reader resolves each project through the POMs it already
+            // parsed, so its projects are read one after the other.
+            int readThreads = Integer.parseInt(commandLine.getOptionValue("r", "1"));
+            if (readThreads < 1) {
+                throw new IllegalArgumentException("Number of read threads must be positive - " + readThreads);
+            }
+            if (readThreads > 1 && readsFiles && dependencyReaderType != DependencyReaderType.POM) {
+                dependencyReader = new ParallelDependencyReader(dependencyReader, readThreads);
+            }
+            // Reuse dependencies from unchanged files when caching or running incrementally
+            incrementalDirectory = commandLine.getOptionValue("n");
+            if (incrementalDirectory != null) {
+                // The tier state is written there even when the dependency cache lives elsewhere or is not used
+                File incrementalDir = new File(incrementalDirectory);
+                boolean success = incrementalDir.mkdirs();
+                if (!success && !incrementalDir.isDirectory()) {
+                    throw new IllegalArgumentException("Please provide a valid path to the incremental directory.");
+                }
+            }
+            String cacheDirectory = commandLine.getOptionValue("c", incrementalDirectory);
+            // The dependencies of a POM also depend on its parents and on the repository, not only on the file itself
+            boolean cachesFiles = readsFiles && dependencyReaderType != DependencyReaderType.POM;
+            if (cacheDirectory != null && cachesFiles) {
+                dependencyCache = new CachingDependencyReader(dependencyReader, cacheDirectory);
+                dependencyReader = dependencyCache;
             }
+            // Save the dependency graph for later runs
+            snapshotPath = commandLine.getOptionValue("p");
             // Set vulnerability reader
             VulnerabilityReaderType vulnerabilityReaderType = VulnerabilityReaderType
                     .getTypeForName(vulnOptionValues[0]);
@@ -119,7 +215,8 @@ public class AriadneCLI {
                     break;
             }
             // Set analyzer
-            analyzer = new Analyzer(Arrays.asList(idOptionValues));
+            int threads = Integer.parseInt(commandLine.getOptionValue("t", "1"));
+            analyzer = new Analyzer(Arrays.asList(idOptionValues), threads);
             // Set writer
             WriterType writerType = WriterType.getTypeForName(writerOptionValues[0]);
             switch (writerType) {
@@ -141,6 +238,11 @@ public class AriadneCLI {
         return dependencyReader;
     }
 
+    // Null unless the dependencies are cached
+    public CachingDependencyReader getDependencyCache() {
+        return dependencyCache;
+    }
+
     public VulnerabilityReader getVulnerabilityReader() {
         return vulnerabilityReader;
     }
@@ -157,6 +259,14 @@ public class AriadneCLI {
         return writeStats;
     }
 
+    public String getIncrementalDirectory() {
+        return incrementalDirectory;
+    }
+
+    public String getSnapshotPath() {
+        return snapshotPath;
+    }
+
     void printHelp() {
         new HelpFormatter().printHelp("ariadne", options);
     }
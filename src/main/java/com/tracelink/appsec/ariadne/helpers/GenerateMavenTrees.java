@@ -25,8 +25,9 @@ public class GenerateMavenTrees {
         }
 
         MavenTreeGenerator generator = new MavenTreeGenerator(cli.getOutputDir(), cli.getMaxDepth(),
-                cli.getDefaultOption(), cli.getSpecialOptions(), cli.getInternalIdentifiers());
-        generator.buildTrees(cli.getProjectsDir(), 0);
+                cli.getDefaultOption(), cli.getSpecialOptions(), cli.getInternalIdentifiers(), cli.getJobs(),
+                cli.getTimeoutMillis(), cli.getLogDir(), cli.isForce());
+        generator.buildTrees(cli.getProjectsDir());
         generator.identifyParents(cli.getProjectsDir(), 0);
     }
 }
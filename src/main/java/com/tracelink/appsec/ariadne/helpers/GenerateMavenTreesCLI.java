@@ -37,6 +37,10 @@ class GenerateMavenTreesCLI {
     private String defaultOption = "";
     private Map<String, String> specialOptions = new HashMap<>();
     private List<String> internalIdentifiers = new ArrayList<>();
+    private int jobs = 1;
+    private long timeoutMinutes = 0;
+    private File logDir;
+    private boolean force = false;
 
     private Options options;
 
@@ -81,6 +85,30 @@ class GenerateMavenTreesCLI {
                 .longOpt("ids")
                 .hasArgs()
                 .build();
+        Option jobsOption = Option.builder("j")
+                .required(false)
+                .desc("The number of Maven processes to run at once, defaults to 1")
+                .longOpt("jobs")
+                .hasArg()
+                .build();
+        Option timeoutOption = Option.builder("t")
+                .required(false)
+                .desc("Minutes after which a Maven process is killed, defaults to 0 for no limit")
+                .longOpt("timeout")
+                .hasArg()
+                .build();
+        Option logOption = Option.builder("l")
+                .required(false)
+                .desc("Path to a directory outside of the output directory that receives the Maven log of each project")
+                .longOpt("logs")
+                .hasArg()
+                .build();
+
+        Option forceOption = Option.builder("f")
+                .required(false)
+                .desc("Rebuilds every dependency tree, even when no POM file or option changed since the previous run")
+                .longOpt("force")
+                .build();
 
         options = new Options();
         options.addOption(projectsOption);
@@ -89,6 +117,10 @@ class GenerateMavenTreesCLI {
         options.addOption(defaultOption);
         options.addOption(specialOption);
         options.addOption(idOption);
+        options.addOption(jobsOption);
+        options.addOption(timeoutOption);
+        options.addOption(logOption);
+        options.addOption(forceOption);
     }
 
     boolean parseArgs(String[] args) {
@@ -126,6 +158,26 @@ class GenerateMavenTreesCLI {
             if (commandLine.hasOption("i")) {
                 internalIdentifiers = Arrays.asList(commandLine.getOptionValues("i"));
             }
+            // Set number of parallel Maven processes
+            if (commandLine.hasOption("j")) {
+                jobs = Integer.parseInt(commandLine.getOptionValue("j"));
+                if (jobs < 1) {
+                    throw new IllegalArgumentException("Number of jobs must be positive - " + jobs);
+                }
+            }
+            // Set Maven process timeout
+            if (commandLine.hasOption("t")) {
+                timeoutMinutes = Long.parseLong(commandLine.getOptionValue("t"));
+                if (timeoutMinutes < 0) {
+                    throw new IllegalArgumentException("Timeout must not be negative - " + timeoutMinutes);
+                }
+            }
+            // Set log directory
+            if (commandLine.hasOption("l")) {
+                setLogDir(commandLine.getOptionValue("l"));
+            }
+            // Set force flag
+            force = commandLine.hasOption("f");
 
         } catch (Exception e) {
             System.out.println("ERROR: Exception occurred. " + e.getMessage());
@@ -174,6 +226,30 @@ class GenerateMavenTreesCLI {
         return internalIdentifiers;
     }
 
+    int getJobs() {
+        return jobs;
+    }
+
+    long getTimeoutMillis() {
+        return timeoutMinutes * 60 * 1000;
+    }
+
+    File getLogDir() {
+        return logDir;
+    }
+
+    private void setLogDir(String logPath) {
+        logDir = new File(logPath);
+        boolean success = logDir.mkdirs();
+        if (!success && !logDir.isDirectory()) {
+            throw new IllegalArgumentException("Please provide a valid path to the log directory.");
+        }
+    }
+
+    boolean isForce() {
+        return force;
+    }
+
     void printHelp() {
         new HelpFormatter().printHelp("maventrees", options);
     }
@@ -16,33 +16,250 @@ OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
  */
 package com.tracelink.appsec.ariadne.helpers;
 
-import java.io.BufferedReader;
+import com.tracelink.appsec.ariadne.utils.IdentifierMatcher;
+
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 class MavenTreeGenerator {
+    // Digest of the POM files and options behind each output file, as of the build that last produced it
+    static final String MANIFEST_FILE = ".manifest";
+    // Lines of a failed build printed when its log is not kept
+    private static final int FAILURE_LINES = 10;
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
     private File outputDir;
     private int maxDepth;
     private String defaultOption;
     private Map<String, String> specialOptions;
-    private List<String> internalIdentifiers;
+    private IdentifierMatcher internalMatcher;
+    private int jobs;
+    private ProcessRunner processRunner;
+    private File logDir;
+    private boolean force;
+    private PomReader pomReader = new PomReader();
 
     MavenTreeGenerator(File outputDir, int maxDepth, String defaultOption, Map<String, String> specialOptions,
                        List<String> internalIdentifiers) {
+        this(outputDir, maxDepth, defaultOption, specialOptions, internalIdentifiers, 1, 0, null, false);
+    }
+
+    // A timeout of zero lets every Maven process run to completion, a null log directory only keeps the logs of
+    // failed builds in memory long enough to print their last lines. Unless forced, trees whose POM files and options
+    // did not change since they were last built are kept as they are.
+    MavenTreeGenerator(File outputDir, int maxDepth, String defaultOption, Map<String, String> specialOptions,
+                       List<String> internalIdentifiers, int jobs, long timeoutMillis, File logDir, boolean force) {
+        if (jobs < 1) {
+            throw new IllegalArgumentException("Number of jobs must be positive - " + jobs);
+        }
         this.outputDir = outputDir;
         this.maxDepth = maxDepth;
         this.defaultOption = defaultOption;
         this.specialOptions = specialOptions;
-        this.internalIdentifiers = internalIdentifiers;
+        this.internalMatcher = new IdentifierMatcher(internalIdentifiers);
+        this.jobs = jobs;
+        this.processRunner = new ProcessRunner(timeoutMillis);
+        this.logDir = logDir;
+        this.force = force;
+    }
+
+    List<BuildResult> buildTrees(File projectsDir) {
+        long start = System.nanoTime();
+        List<File> projects = new ArrayList<>();
+        findProjects(projectsDir, 0, projects);
+
+        // Maven appends to the output file, so projects sharing a directory name are built one after the other and
+        // their trees never interleave
+        Map<String, List<File>> projectsByOutput = new LinkedHashMap<>();
+        for (File project : projects) {
+            projectsByOutput.computeIfAbsent(getOutputPath(project), k -> new ArrayList<>()).add(project);
+        }
+        Map<String, String> previous = readManifest();
+        Map<String, String> current = new ConcurrentHashMap<>();
+        List<BuildResult> results = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(jobs);
+        try {
+            List<List<File>> groups = new ArrayList<>();
+            List<Future<List<BuildResult>>> pending = new ArrayList<>();
+            for (Map.Entry<String, List<File>> entry : projectsByOutput.entrySet()) {
+                groups.add(entry.getValue());
+                pending.add(executor.submit(() -> buildGroup(new File(entry.getKey()), entry.getValue(), previous,
+                        current)));
+            }
+            for (int i = 0; i < pending.size(); i++) {
+                try {
+                    results.addAll(pending.get(i).get());
+                } catch (ExecutionException e) {
+                    // Only this group failed, the others keep building
+                    System.out.println("WARNING: Exception occurred. " + e.getCause().getMessage());
+                    for (File project : groups.get(i)) {
+                        results.add(new BuildResult(project, BuildStatus.FAILED, 0));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("WARNING: Interrupted while building dependency trees");
+        } finally {
+            executor.shutdownNow();
+        }
+        // Groups that did not finish are left out, so they are built again next time
+        try {
+            writeManifest(current);
+        } catch (IOException e) {
+            System.out.println("WARNING: Exception occurred while writing the manifest. " + e.getMessage());
+        }
+        printSummary(results, (System.nanoTime() - start) / 1000000);
+        return results;
+    }
+
+    // Builds the projects that share an output file, unless none of their POM files or options changed since that
+    // file was built and it is still there
+    private List<BuildResult> buildGroup(File output, List<File> group, Map<String, String> previous,
+                                         Map<String, String> current) {
+        List<BuildResult> results = new ArrayList<>();
+        String digest = null;
+        try {
+            digest = digest(group);
+        } catch (IOException e) {
+            // Build anyway, without recording the group in the manifest
+            System.out.println("WARNING: Exception occurred. " + e.getMessage());
+        }
+        if (!force && digest != null && digest.equals(previous.get(output.getName())) && output.isFile()) {
+            for (File project : group) {
+                System.out.println("UNCHANGED: " + project.getAbsolutePath());
+                results.add(new BuildResult(project, BuildStatus.UNCHANGED, 0));
+            }
+            current.put(output.getName(), digest);
+            return results;
+        }
+        // Maven appends to the output file, so the previous tree has to go first
+        try {
+            Files.deleteIfExists(output.toPath());
+        } catch (IOException e) {
+            System.out.println("WARNING: Exception occurred. " + e.getMessage());
+            for (File project : group) {
+                results.add(new BuildResult(project, BuildStatus.FAILED, 0));
+            }
+            return results;
+        }
+        boolean success = true;
+        for (File project : group) {
+            BuildResult result = buildTree(project);
+            success &= result.status == BuildStatus.SUCCESS;
+            results.add(result);
+        }
+        if (success && digest != null) {
+            current.put(output.getName(), digest);
+        }
+        return results;
+    }
+
+    // Covers the options of each project and the path and content of every POM file in its module tree
+    private String digest(List<File> group) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Missing digest algorithm - " + DIGEST_ALGORITHM, e);
+        }
+        for (File project : group) {
+            update(digest, project.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+            update(digest, specialOptions.getOrDefault(project.getName(), defaultOption)
+                    .getBytes(StandardCharsets.UTF_8));
+            List<File> poms = new ArrayList<>();
+            findPoms(project, poms);
+            for (File pom : poms) {
+                update(digest, pom.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+                update(digest, Files.readAllBytes(pom.toPath()));
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    // Each value is preceded by its length, so that two different lists of values never digest the same
+    private static void update(MessageDigest digest, byte[] value) {
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(value.length).array());
+        digest.update(value);
+    }
+
+    // Build output and hidden directories never hold a module
+    private static void findPoms(File dir, List<File> poms) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.isDirectory()) {
+                if (!file.getName().startsWith(".") && !file.getName().equals("target")) {
+                    findPoms(file, poms);
+                }
+            } else if (file.getName().equals("pom.xml")) {
+                poms.add(file);
+            }
+        }
     }
 
-    void buildTrees(File file, int depth) {
+    // One line per output file, its digest then its name. A missing or unreadable manifest rebuilds every tree.
+    private Map<String, String> readManifest() {
+        Map<String, String> manifest = new HashMap<>();
+        File file = new File(outputDir, MANIFEST_FILE);
+        if (!file.isFile()) {
+            return manifest;
+        }
+        try {
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                String[] fields = line.split(" ", 2);
+                if (fields.length == 2) {
+                    manifest.put(fields[1], fields[0]);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("WARNING: Ignoring unreadable manifest. " + e.getMessage());
+            manifest.clear();
+        }
+        return manifest;
+    }
+
+    // Written next to the old manifest and swapped in, so an interrupted write leaves the previous one intact
+    private void writeManifest(Map<String, String> manifest) throws IOException {
+        File file = new File(outputDir, MANIFEST_FILE);
+        File temp = new File(file.getPath() + ".tmp");
+        List<String> lines = new ArrayList<>();
+        new TreeMap<>(manifest).forEach((output, digest) -> lines.add(digest + " " + output));
+        Files.write(temp.toPath(), lines, StandardCharsets.UTF_8);
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Collects every directory with a POM file, without searching below it
+    private void findProjects(File file, int depth, List<File> projects) {
         // Stop recursion if this is not a directory or we have exceeded the maximum search depth
         if (depth > maxDepth || !file.isDirectory()) {
             return;
@@ -59,28 +276,83 @@ class MavenTreeGenerator {
                 System.out.println("WARNING: " + file.getAbsolutePath() + " - No POM file");
             }
             Arrays.stream(innerFiles).forEach(
-                    f -> buildTrees(f, depth + 1));
+                    f -> findProjects(f, depth + 1, projects));
         } else {
-            // There is a POM file in this directory. Attempt to build Maven dependency tree
-            String outputPath = outputDir.getAbsolutePath() + "/" + file.getName() + ".txt";
-            String options = specialOptions.getOrDefault(file.getName(), defaultOption);
+            projects.add(file);
+        }
+    }
 
-            ProcessBuilder processBuilder = new ProcessBuilder()
-                    // Uncomment this line to see Maven build output in console
-                    // .inheritIO()
-                    .directory(file)
-                    .command("mvn", "dependency:tree", "-DappendOutput=true", "-DoutputFile=" + outputPath, options);
-            try {
-                Process process = processBuilder.start();
-                int exitCode = process.waitFor();
-                // If build failed, add to list of failures
-                if (exitCode != 0 && depth == 1) {
-                    System.out.println("WARNING: " + file.getAbsolutePath() + " - Build failed");
-                } else {
-                    System.out.println("SUCCESS: " + file.getAbsolutePath());
-                }
-            } catch (IOException | InterruptedException e) {
-                System.out.println("WARNING: Exception occurred. " + e.getMessage());
+    String getOutputPath(File project) {
+        return outputDir.getAbsolutePath() + "/" + project.getName() + ".txt";
+    }
+
+    // There is a POM file in this directory. Attempt to build Maven dependency tree
+    BuildResult buildTree(File project) {
+        String options = specialOptions.getOrDefault(project.getName(), defaultOption);
+        ProcessBuilder processBuilder = new ProcessBuilder()
+                .directory(project)
+                .command("mvn", "dependency:tree", "-DappendOutput=true", "-DoutputFile=" + getOutputPath(project),
+                        options);
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            ProcessRunner.Result result = processRunner.run(processBuilder);
+            success = result.isSuccess();
+            writeLog(project, result);
+            // If build failed, add to list of failures
+            if (success) {
+                System.out.println("SUCCESS: " + project.getAbsolutePath());
+            } else if (result.isTimedOut()) {
+                System.out.println("WARNING: " + project.getAbsolutePath() + " - Build timed out after "
+                        + result.getMillis() + " ms");
+            } else {
+                System.out.println("WARNING: " + project.getAbsolutePath() + " - Build failed");
+            }
+            if (!success && logDir == null) {
+                printTail(result);
+            }
+        } catch (IOException e) {
+            System.out.println("WARNING: Exception occurred. " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("WARNING: Interrupted while building " + project.getAbsolutePath());
+        }
+        return new BuildResult(project, success ? BuildStatus.SUCCESS : BuildStatus.FAILED,
+                (System.nanoTime() - start) / 1000000);
+    }
+
+    // Maven prints build errors to its output stream, so both streams go into the log
+    private void writeLog(File project, ProcessRunner.Result result) throws IOException {
+        if (logDir == null) {
+            return;
+        }
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(logDir, project.getName() + ".log"),
+                true))) {
+            writer.write(result.getOutput());
+            writer.write(result.getErrors());
+        }
+    }
+
+    private void printTail(ProcessRunner.Result result) {
+        String[] lines = (result.getOutput() + result.getErrors()).split("\\r?\\n");
+        for (int i = Math.max(0, lines.length - FAILURE_LINES); i < lines.length; i++) {
+            System.out.println("    " + lines[i]);
+        }
+    }
+
+    private void printSummary(List<BuildResult> results, long millis) {
+        Map<BuildStatus, Long> counts = new EnumMap<>(BuildStatus.class);
+        for (BuildResult result : results) {
+            counts.merge(result.status, 1L, Long::sum);
+        }
+        System.out.println(String.format("* Maven Trees: %d succeeded, %d failed, %d unchanged in %d ms on %d job(s)",
+                counts.getOrDefault(BuildStatus.SUCCESS, 0L), counts.getOrDefault(BuildStatus.FAILED, 0L),
+                counts.getOrDefault(BuildStatus.UNCHANGED, 0L), millis, jobs));
+        results.sort(Comparator.comparingLong((BuildResult r) -> r.millis).reversed());
+        for (BuildResult result : results) {
+            if (result.status != BuildStatus.UNCHANGED) {
+                System.out.println(String.format("*   %s: %s in %d ms", result.project.getAbsolutePath(),
+                        result.status, result.millis));
             }
         }
     }
@@ -100,22 +372,34 @@ class MavenTreeGenerator {
         if (Arrays.stream(innerFiles).anyMatch(f -> f.getName().equals("pom.xml"))) {
             String options = specialOptions.getOrDefault(file.getName(), defaultOption);
 
-            String pGroupId = evaluateArtifactExpression(file, "project.parent.groupId", options);
-            if (pGroupId == null
-                    || pGroupId.equals("null object or invalid expression")
-                    || pGroupId.contains("[ERROR]")
-                    || internalIdentifiers.stream().noneMatch(pGroupId::contains)) {
-                return;
-            }
+            String pName;
+            String cName;
+            PomReader.Coordinates coordinates = pomReader.read(file, options);
+            if (coordinates != null) {
+                if (!coordinates.hasParent() || !internalMatcher.matches(coordinates.getParentGroupId())) {
+                    return;
+                }
+                pName = coordinates.getParentName();
+                cName = coordinates.getName();
+            } else {
+                // Only Maven can resolve this POM
+                String pGroupId = evaluateArtifactExpression(file, "project.parent.groupId", options);
+                if (pGroupId == null
+                        || pGroupId.equals("null object or invalid expression")
+                        || pGroupId.contains("[ERROR]")
+                        || !internalMatcher.matches(pGroupId)) {
+                    return;
+                }
 
-            String pArtifactId = evaluateArtifactExpression(file, "project.parent.artifactId", options);
-            String pVersion = evaluateArtifactExpression(file, "project.parent.version", options);
-            String pName = String.join(":", pGroupId, pArtifactId, pVersion);
+                String pArtifactId = evaluateArtifactExpression(file, "project.parent.artifactId", options);
+                String pVersion = evaluateArtifactExpression(file, "project.parent.version", options);
+                pName = String.join(":", pGroupId, pArtifactId, pVersion);
 
-            String cGroupId = evaluateArtifactExpression(file, "project.groupId", options);
-            String cArtifactId = evaluateArtifactExpression(file, "project.artifactId", options);
-            String cVersion = evaluateArtifactExpression(file, "project.version", options);
-            String cName = String.join(":", cGroupId, cArtifactId, cVersion);
+                String cGroupId = evaluateArtifactExpression(file, "project.groupId", options);
+                String cArtifactId = evaluateArtifactExpression(file, "project.artifactId", options);
+                String cVersion = evaluateArtifactExpression(file, "project.version", options);
+                cName = String.join(":", cGroupId, cArtifactId, cVersion);
+            }
 
             System.out.println(cName + " ---> " + pName);
 
@@ -145,15 +429,39 @@ class MavenTreeGenerator {
                         options);
         String result = null;
         try {
-            Process process = processBuilder.start();
-            try (BufferedReader br = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                result = br.readLine();
-            }
+            // The value is the first line of the output
+            String output = processRunner.run(processBuilder).getOutput();
+            result = output.isEmpty() ? null : output.split("\\r?\\n", 2)[0];
         } catch (IOException e) {
             System.out.println("WARNING: Exception occurred. " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("WARNING: Interrupted while evaluating " + expression);
         }
         return result;
     }
 
+    enum BuildStatus {
+        SUCCESS, FAILED, UNCHANGED
+    }
+
+    static class BuildResult {
+        private File project;
+        private BuildStatus status;
+        private long millis;
 
+        BuildResult(File project, BuildStatus status, long millis) {
+            this.project = project;
+            this.status = status;
+            this.millis = millis;
+        }
+
+        File getProject() {
+            return project;
+        }
+
+        BuildStatus getStatus() {
+            return status;
+        }
+    }
 }
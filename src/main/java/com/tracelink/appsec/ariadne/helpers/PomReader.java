@@ -0,0 +1,196 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.helpers;
+
+import com.tracelink.appsec.ariadne.read.pom.Pom;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Reads the coordinates of a project and of its parent straight from pom.xml, instead of asking Maven for each of them.
+// Missing group ids and versions are inherited from the parent, and ${...} references are resolved from -D options,
+// the project and parent coordinates and the properties of the POM and of every parent found on disk. A property that a
+// profile may set cannot be resolved without Maven. Parsed POMs are kept, since most projects share their parents.
+class PomReader {
+    private static final Pattern USER_PROPERTY = Pattern.compile("-D([^=\\s]+)=(\\S*)");
+
+    private Map<File, Node> nodes = new HashMap<>();
+
+    // Returns null if the POM cannot be read or some coordinate depends on something only Maven knows
+    Coordinates read(File projectDir, String options) {
+        Node node;
+        try {
+            node = getNode(new File(projectDir, "pom.xml"));
+        } catch (IOException e) {
+            return null;
+        }
+        Map<String, String> properties = getProperties(node);
+        Set<String> profileProperties = getProfileProperties(node);
+        // -D options override the properties of the POM, as they do on the command line
+        Matcher matcher = USER_PROPERTY.matcher(options);
+        while (matcher.find()) {
+            properties.put(matcher.group(1), matcher.group(2));
+            profileProperties.remove(matcher.group(1));
+        }
+        profileProperties.forEach(properties::remove);
+
+        Pom pom = node.pom;
+        Coordinates coordinates = new Coordinates();
+        coordinates.groupId = resolve(pom.getInheritedGroupId(), properties);
+        coordinates.artifactId = resolve(pom.getArtifactId(), properties);
+        coordinates.version = resolve(pom.getInheritedVersion(), properties);
+        if (coordinates.groupId == null || coordinates.artifactId == null || coordinates.version == null) {
+            return null;
+        }
+        if (pom.hasParent()) {
+            coordinates.parentGroupId = resolve(pom.getParentGroupId(), properties);
+            coordinates.parentArtifactId = resolve(pom.getParentArtifactId(), properties);
+            coordinates.parentVersion = resolve(pom.getParentVersion(), properties);
+            if (coordinates.parentGroupId == null || coordinates.parentArtifactId == null
+                    || coordinates.parentVersion == null) {
+                return null;
+            }
+        }
+        return coordinates;
+    }
+
+    private Node getNode(File file) throws IOException {
+        File key = file.getCanonicalFile();
+        Node node = nodes.get(key);
+        if (node == null) {
+            node = new Node(Pom.parse(key));
+            nodes.put(key, node);
+            node.parent = findParent(node, key);
+        }
+        return node;
+    }
+
+    // The parent is only used if the POM at its relative path declares the same coordinates and does not lead back to
+    // this POM
+    private Node findParent(Node node, File file) {
+        Pom pom = node.pom;
+        String relativePath = pom.getRelativePath();
+        if (!pom.hasParent() || (relativePath != null && relativePath.isEmpty())) {
+            return null;
+        }
+        File parentFile = new File(file.getParentFile(), relativePath == null ? "../pom.xml" : relativePath);
+        if (parentFile.isDirectory()) {
+            parentFile = new File(parentFile, "pom.xml");
+        }
+        if (!parentFile.isFile()) {
+            return null;
+        }
+        try {
+            Node parent = getNode(parentFile);
+            for (Node ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+                if (ancestor == node) {
+                    System.out.println("WARNING: Cyclic parent of " + file.getPath() + " - " + parentFile.getPath());
+                    return null;
+                }
+            }
+            // The declared coordinates are resolved as if the POM on disk were the parent, then compared with its own
+            Map<String, String> parentProperties = getProperties(parent);
+            Map<String, String> properties = new HashMap<>(parentProperties);
+            properties.putAll(pom.getProperties());
+            pom.putProjectProperties(properties);
+            String declared = getName(pom.getParentGroupId(), pom.getParentArtifactId(), pom.getParentVersion(),
+                    properties);
+            String actual = getName(parent.pom.getInheritedGroupId(), parent.pom.getArtifactId(),
+                    parent.pom.getInheritedVersion(), parentProperties);
+            if (declared != null && declared.equals(actual)) {
+                return parent;
+            }
+        } catch (IOException e) {
+            // Treat an unreadable parent like one that is not on disk
+        }
+        return null;
+    }
+
+    // Properties of the parents first, so that each POM overrides the ones above it
+    private Map<String, String> getProperties(Node node) {
+        Map<String, String> properties = node.parent == null ? new HashMap<>() : getProperties(node.parent);
+        properties.putAll(node.pom.getProperties());
+        node.pom.putProjectProperties(properties);
+        return properties;
+    }
+
+    private Set<String> getProfileProperties(Node node) {
+        Set<String> names = new HashSet<>();
+        for (Node current = node; current != null; current = current.parent) {
+            names.addAll(current.pom.getProfileProperties());
+        }
+        return names;
+    }
+
+    // Null unless all three coordinates could be resolved
+    private static String getName(String groupId, String artifactId, String version, Map<String, String> properties) {
+        String resolvedGroupId = resolve(groupId, properties);
+        String resolvedArtifactId = resolve(artifactId, properties);
+        String resolvedVersion = resolve(version, properties);
+        if (resolvedGroupId == null || resolvedArtifactId == null || resolvedVersion == null) {
+            return null;
+        }
+        return String.join(":", resolvedGroupId, resolvedArtifactId, resolvedVersion);
+    }
+
+    // Null unless every reference could be resolved
+    private static String resolve(String value, Map<String, String> properties) {
+        String resolved = Pom.interpolate(value, properties);
+        return Pom.isInterpolated(resolved) ? resolved : null;
+    }
+
+    static class Coordinates {
+        private String groupId;
+        private String artifactId;
+        private String version;
+        private String parentGroupId;
+        private String parentArtifactId;
+        private String parentVersion;
+
+        String getName() {
+            return String.join(":", groupId, artifactId, version);
+        }
+
+        boolean hasParent() {
+            return parentArtifactId != null;
+        }
+
+        String getParentGroupId() {
+            return parentGroupId;
+        }
+
+        String getParentName() {
+            return String.join(":", parentGroupId, parentArtifactId, parentVersion);
+        }
+    }
+
+    // A parsed POM and its parent on disk, if any
+    private static class Node {
+        private Pom pom;
+        private Node parent;
+
+        Node(Pom pom) {
+            this.pom = pom;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.helpers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Runs a subprocess to completion. Its output and error streams are drained on their own threads, so a chatty process
+// never blocks on a full pipe, and only the last bytes of each are kept. A process that runs past the timeout is killed
+// together with its descendants. Every process is waited for before run returns, so none is left behind.
+class ProcessRunner {
+    static final int DEFAULT_LOG_SIZE = 64 * 1024;
+    // How long to wait for the streams to close once the process has ended
+    private static final long DRAIN_MILLIS = 5000;
+
+    private long timeoutMillis;
+    private int logSize;
+
+    ProcessRunner(long timeoutMillis) {
+        this(timeoutMillis, DEFAULT_LOG_SIZE);
+    }
+
+    ProcessRunner(long timeoutMillis, int logSize) {
+        this.timeoutMillis = timeoutMillis;
+        this.logSize = logSize;
+    }
+
+    Result run(ProcessBuilder processBuilder) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = processBuilder.start();
+        boolean finished = false;
+        try {
+            // Nothing is ever written to the process
+            process.getOutputStream().close();
+            Drain output = new Drain(process.getInputStream(), logSize);
+            Drain errors = new Drain(process.getErrorStream(), logSize);
+            output.start();
+            errors.start();
+
+            boolean timedOut = false;
+            if (timeoutMillis > 0) {
+                timedOut = !process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            if (timedOut) {
+                destroyTree(process);
+            }
+            int exitCode = process.waitFor();
+            finished = true;
+            output.finish();
+            errors.finish();
+            return new Result(exitCode, timedOut, output.getLog(), errors.getLog(),
+                    (System.nanoTime() - start) / 1000000);
+        } finally {
+            if (!finished) {
+                // Interrupted, do not leave the process running
+                destroyTree(process);
+                process.waitFor(DRAIN_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            process.getInputStream().close();
+            process.getErrorStream().close();
+        }
+    }
+
+    // Process.descendants() only exists from Java 9 on, while the build still targets Java 8. On Java 8 only the
+    // process itself is killed, which is enough for the mvn launcher since it replaces itself with the Maven JVM.
+    private static void destroyTree(Process process) {
+        List<Object> descendants = new ArrayList<>();
+        Method destroy = null;
+        try {
+            // Take the descendants first, once the process is gone they are no longer its children
+            Stream<?> handles = (Stream<?>) Process.class.getMethod("descendants").invoke(process);
+            descendants = handles.collect(Collectors.toList());
+            destroy = Class.forName("java.lang.ProcessHandle").getMethod("destroyForcibly");
+        } catch (ReflectiveOperationException e) {
+            // Running on Java 8
+        }
+        process.destroyForcibly();
+        for (Object descendant : descendants) {
+            try {
+                destroy.invoke(descendant);
+            } catch (ReflectiveOperationException e) {
+                // The descendant could not be killed, nothing else to try
+            }
+        }
+    }
+
+    static class Result {
+        private int exitCode;
+        private boolean timedOut;
+        private String output;
+        private String errors;
+        private long millis;
+
+        Result(int exitCode, boolean timedOut, String output, String errors, long millis) {
+            this.exitCode = exitCode;
+            this.timedOut = timedOut;
+            this.output = output;
+            this.errors = errors;
+            this.millis = millis;
+        }
+
+        int getExitCode() {
+            return exitCode;
+        }
+
+        boolean isTimedOut() {
+            return timedOut;
+        }
+
+        boolean isSuccess() {
+            return !timedOut && exitCode == 0;
+        }
+
+        // The end of the output stream, at most the log size
+        String getOutput() {
+            return output;
+        }
+
+        // The end of the error stream, at most the log size
+        String getErrors() {
+            return errors;
+        }
+
+        long getMillis() {
+            return millis;
+        }
+    }
+
+    // Reads a stream until it ends, keeping its last bytes in a ring buffer
+    private static class Drain extends Thread {
+        private InputStream in;
+        private byte[] ring;
+        private long total = 0;
+
+        Drain(InputStream in, int logSize) {
+            this.in = in;
+            this.ring = new byte[logSize];
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            byte[] buffer = new byte[8192];
+            try {
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    append(buffer, read);
+                }
+            } catch (IOException e) {
+                // The stream was closed, keep what was read
+            }
+        }
+
+        void finish() throws InterruptedException {
+            join(DRAIN_MILLIS);
+            // Otherwise a descendant still holds the stream open. The thread is a daemon and ends with the stream, the
+            // log keeps what was read so far.
+        }
+
+        private synchronized void append(byte[] buffer, int length) {
+            if (ring.length == 0) {
+                total += length;
+                return;
+            }
+            // Bytes that would be overwritten within this same read are only counted
+            int skipped = Math.max(0, length - ring.length);
+            total += skipped;
+            for (int i = skipped; i < length; i++) {
+                ring[(int) (total++ % ring.length)] = buffer[i];
+            }
+        }
+
+        synchronized String getLog() {
+            int size = (int) Math.min(total, ring.length);
+            byte[] log = new byte[size];
+            int start = (int) ((total - size) % Math.max(1, ring.length));
+            for (int i = 0; i < size; i++) {
+                log[i] = ring[(start + i) % ring.length];
+            }
+            return new String(log, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -16,14 +16,18 @@ OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
  */
 package com.tracelink.appsec.ariadne.model;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 public interface Artifact extends Comparable<Artifact> {
 
+    int getId();
+
     String getName();
 
+    // The name without the version, "groupId:artifactId"
+    String getArtifactName();
+
     int getTier();
 
     int getConnections();
@@ -42,13 +46,17 @@ public interface Artifact extends Comparable<Artifact> {
 
     void addChild(String version, Artifact child);
 
-    void findCycles(List<String> visited);
+    int getComponent();
 
-    void assignTiers();
+    void setComponent(int component);
 
-    void assignTier(int tier, String root, String direct, List<String> visited);
+    void setTier(int tier);
 
     Set<String> getInternalUpgrades();
 
+    void addInternalUpgrade(String child);
+
     Map<String, Set<String>> getExternalUpgrades();
+
+    void addExternalUpgrade(String child, String root);
 }
@@ -0,0 +1,157 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.model;
+
+// A Maven coordinate "groupId:artifactId:version", split once so that its parts can be shared instead of being cut
+// out of the full name again wherever they are needed
+public final class Coordinate {
+    private final String fullName;
+    private final String artifactName;
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    private final int hash;
+
+    Coordinate(String fullName, String artifactName, String groupId, String artifactId, String version) {
+        this.fullName = fullName;
+        this.artifactName = artifactName;
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.hash = fullName.hashCode();
+    }
+
+    ////////////////////////////////////////////// Assume bad formatting ///////////////////////////////////////////////
+
+    public static Coordinate parse(String artifact) {
+        int first = artifact.indexOf(':');
+        int second = first < 0 ? -1 : artifact.indexOf(':', first + 1);
+        if (second < 0 || second == artifact.length() - 1 || artifact.indexOf(':', second + 1) >= 0) {
+            return of(String.join(":", formatArtifact(artifact)));
+        }
+        // Three components, only trim them
+        String groupId = artifact.substring(0, first).trim();
+        String artifactId = artifact.substring(first + 1, second).trim();
+        String version = artifact.substring(second + 1).trim();
+        if (groupId.length() + artifactId.length() + version.length() + 2 == artifact.length()) {
+            return new Coordinate(artifact, artifact.substring(0, second), groupId, artifactId, version);
+        }
+        String artifactName = groupId + ":" + artifactId;
+        return new Coordinate(artifactName + ":" + version, artifactName, groupId, artifactId, version);
+    }
+
+    private static String[] formatArtifact(String artifact) {
+        String[] components = artifact.split(":");
+        for (int i = 0; i < components.length; i++) {
+            components[i] = components[i].trim();
+        }
+
+        while (components.length != 3) {
+            switch (components.length) {
+                case 1:
+                    components = artifact.split(" ");
+                    if (components.length == 1) {
+                        throw new IllegalArgumentException("Unknown artifact format - " + artifact);
+                    }
+                    break;
+                case 2:
+                    if (Character.isDigit(components[1].charAt(0))) {
+                        // Set group and artifact to be the same
+                        components = new String[]{components[0], components[0], components[1]};
+                        System.out.println("WARNING: No group/artifact ID - " + artifact);
+                    } else {
+                        // Set version to "null"
+                        components = new String[]{components[0], components[1], "null"};
+                        System.out.println("WARNING: No version - " + artifact);
+                    }
+                    break;
+                default:
+                    StringBuilder artifactId = new StringBuilder();
+                    for (int i = 1; i < components.length - 1; i++) {
+                        if (i != 1) {
+                            artifactId.append(":");
+                        }
+                        artifactId.append(components[i]);
+
+                    }
+                    components = new String[]{
+                            components[0],
+                            artifactId.toString(),
+                            components[components.length - 1]
+                    };
+                    System.out.println("WARNING: Too many components - " + artifact);
+            }
+        }
+        return components;
+    }
+
+    /////////////////////////////// Assume good formatting (groupId:artifactId:version) ////////////////////////////////
+
+    public static Coordinate of(String fullName) {
+        int last = fullName.lastIndexOf(':');
+        if (last < 0) {
+            throw new IllegalArgumentException("Unknown artifact format - " + fullName);
+        }
+        String artifactName = fullName.substring(0, last);
+        int first = artifactName.indexOf(':');
+        String groupId = first < 0 ? artifactName : artifactName.substring(0, first);
+        String artifactId = first < 0 ? "" : artifactName.substring(first + 1);
+        return new Coordinate(fullName, artifactName, groupId, artifactId, fullName.substring(last + 1));
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getArtifactName() {
+        return artifactName;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Coordinate)) {
+            return false;
+        }
+        Coordinate other = (Coordinate) o;
+        return hash == other.hash && fullName.equals(other.fullName);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return fullName;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Parses each distinct full name once and shares the parts between coordinates, so that artifacts of the same
+// group or with the same version hold the same strings
+public class CoordinateTable {
+    private Map<String, Coordinate> coordinates = new HashMap<>();
+    private Map<String, String> parts = new HashMap<>();
+
+    public Coordinate get(String fullName) {
+        Coordinate coordinate = coordinates.get(fullName);
+        if (coordinate == null) {
+            Coordinate parsed = Coordinate.of(fullName);
+            coordinate = new Coordinate(fullName, intern(parsed.getArtifactName()), intern(parsed.getGroupId()),
+                    intern(parsed.getArtifactId()), intern(parsed.getVersion()));
+            coordinates.put(fullName, coordinate);
+        }
+        return coordinate;
+    }
+
+    public int size() {
+        return coordinates.size();
+    }
+
+    private String intern(String part) {
+        String interned = parts.putIfAbsent(part, part);
+        return interned == null ? part : interned;
+    }
+}
@@ -0,0 +1,298 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.model;
+
+import com.tracelink.appsec.ariadne.utils.IntList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+public class DependencyGraph implements GraphView {
+    // Artifact names and version strings are interned so that each coordinate is only stored once
+    private StringTable names = new StringTable();
+    private StringTable versions = new StringTable();
+    private List<Artifact> artifacts = new ArrayList<>();
+
+    // Every artifact version owns a slot, external artifacts have exactly one
+    private IntList slotNodes = new IntList();
+    private IntList slotVersions = new IntList();
+
+    // Links recorded during ingestion as (slot, artifact id) pairs
+    private IntList childLinkSlots = new IntList();
+    private IntList childLinkNodes = new IntList();
+    private IntList parentLinkSlots = new IntList();
+    private IntList parentLinkNodes = new IntList();
+
+    // Compressed sparse rows built from the links once ingestion finishes
+    private boolean frozen = true;
+    private int frozenSlots = 0;
+    private int[] childOffsets = new int[1];
+    private int[] children = new int[0];
+    private int[] parentOffsets = new int[1];
+    private int[] parents = new int[0];
+
+    public InternalArtifact addInternalArtifact(String artifact) {
+        return addInternalArtifact(Coordinate.of(artifact));
+    }
+
+    public InternalArtifact addInternalArtifact(Coordinate coordinate) {
+        return new InternalArtifact(this, coordinate);
+    }
+
+    public ExternalArtifact addExternalArtifact(String artifact) {
+        return addExternalArtifact(Coordinate.of(artifact));
+    }
+
+    public ExternalArtifact addExternalArtifact(Coordinate coordinate) {
+        return new ExternalArtifact(this, coordinate);
+    }
+
+    @Override
+    public Artifact getArtifact(String name) {
+        int id = names.find(name);
+        return id < 0 ? null : artifacts.get(id);
+    }
+
+    @Override
+    public Artifact getArtifact(int id) {
+        return artifacts.get(id);
+    }
+
+    @Override
+    public List<Artifact> getArtifacts() {
+        List<Artifact> sorted = new ArrayList<>(artifacts);
+        sorted.sort(Comparator.comparing(Artifact::getName));
+        return sorted;
+    }
+
+    @Override
+    public int size() {
+        return artifacts.size();
+    }
+
+    @Override
+    public int getSlotCount() {
+        return slotNodes.size();
+    }
+
+    @Override
+    public String getName(int id) {
+        return names.get(id);
+    }
+
+    @Override
+    public int getNode(int slot) {
+        return slotNodes.get(slot);
+    }
+
+    @Override
+    public String getVersion(int slot) {
+        return versions.get(slotVersions.get(slot));
+    }
+
+    @Override
+    public boolean isInternal(int id) {
+        return artifacts.get(id) instanceof InternalArtifact;
+    }
+
+    @Override
+    public int getLatestSlot(int id) {
+        Artifact artifact = artifacts.get(id);
+        if (artifact instanceof InternalArtifact) {
+            return ((InternalArtifact) artifact).getLatestVersion().getSlot();
+        }
+        return ((ExternalArtifact) artifact).getSlot();
+    }
+
+    @Override
+    public int getChildCount(int slot) {
+        ensureFrozen();
+        return slot < frozenSlots ? childOffsets[slot + 1] - childOffsets[slot] : 0;
+    }
+
+    @Override
+    public int getChild(int slot, int index) {
+        ensureFrozen();
+        return children[childOffsets[slot] + index];
+    }
+
+    @Override
+    public int getParentCount(int slot) {
+        ensureFrozen();
+        return slot < frozenSlots ? parentOffsets[slot + 1] - parentOffsets[slot] : 0;
+    }
+
+    @Override
+    public int getParent(int slot, int index) {
+        ensureFrozen();
+        return parents[parentOffsets[slot] + index];
+    }
+
+    public boolean hasChild(int slot, String child) {
+        int childId = names.find(child);
+        return childId >= 0 && hasChild(slot, childId);
+    }
+
+    @Override
+    public boolean hasChild(int slot, int child) {
+        ensureFrozen();
+        // Rows are sorted by id
+        return slot < frozenSlots
+                && Arrays.binarySearch(children, childOffsets[slot], childOffsets[slot + 1], child) >= 0;
+    }
+
+    public void freeze() {
+        if (frozen) {
+            return;
+        }
+        int slotCount = slotNodes.size();
+        childOffsets = new int[slotCount + 1];
+        children = compress(childLinkSlots, childLinkNodes, childOffsets);
+        parentOffsets = new int[slotCount + 1];
+        parents = compress(parentLinkSlots, parentLinkNodes, parentOffsets);
+        frozenSlots = slotCount;
+
+        // The rows now hold every link, so release the ingestion lists
+        childLinkSlots = new IntList();
+        childLinkNodes = new IntList();
+        parentLinkSlots = new IntList();
+        parentLinkNodes = new IntList();
+        frozen = true;
+    }
+
+    // Artifacts change their links through the graph they were added to, a mapped graph cannot be changed
+    static DependencyGraph writable(GraphView graph) {
+        if (!(graph instanceof DependencyGraph)) {
+            throw new UnsupportedOperationException("Cannot change a mapped dependency graph.");
+        }
+        return (DependencyGraph) graph;
+    }
+
+    int addNode(String name, Artifact artifact) {
+        if (names.find(name) >= 0) {
+            throw new IllegalArgumentException("Artifact already exists - " + name);
+        }
+        int id = names.intern(name);
+        artifacts.add(artifact);
+        return id;
+    }
+
+    int addSlot(int node, String version) {
+        slotNodes.add(node);
+        slotVersions.add(versions.intern(version));
+        return slotNodes.size() - 1;
+    }
+
+    void addChildLink(int slot, int child) {
+        thaw();
+        childLinkSlots.add(slot);
+        childLinkNodes.add(child);
+    }
+
+    void addParentLink(int slot, int parent) {
+        thaw();
+        parentLinkSlots.add(slot);
+        parentLinkNodes.add(parent);
+    }
+
+    int idOf(Artifact artifact) {
+        int id = artifact.getId();
+        if (id < 0 || id >= artifacts.size() || artifacts.get(id) != artifact) {
+            throw new IllegalArgumentException("Artifact does not belong to this graph - " + artifact.getName());
+        }
+        return id;
+    }
+
+    private void ensureFrozen() {
+        if (!frozen) {
+            freeze();
+        }
+    }
+
+    private void thaw() {
+        if (!frozen) {
+            return;
+        }
+        // Move the rows back into link lists so that ingestion can continue
+        expand(childOffsets, children, childLinkSlots, childLinkNodes);
+        expand(parentOffsets, parents, parentLinkSlots, parentLinkNodes);
+        childOffsets = new int[1];
+        children = new int[0];
+        parentOffsets = new int[1];
+        parents = new int[0];
+        frozenSlots = 0;
+        frozen = false;
+    }
+
+    private int[] compress(IntList linkSlots, IntList linkNodes, int[] offsets) {
+        int slotCount = offsets.length - 1;
+        int nodeCount = artifacts.size();
+        // Order the links by target first, so that bucketing them by slot leaves every row sorted
+        int[] nodeOffsets = new int[nodeCount + 1];
+        for (int i = 0; i < linkNodes.size(); i++) {
+            nodeOffsets[linkNodes.get(i) + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            nodeOffsets[node + 1] += nodeOffsets[node];
+        }
+        int[] byNode = new int[linkNodes.size()];
+        for (int i = 0; i < linkNodes.size(); i++) {
+            byNode[nodeOffsets[linkNodes.get(i)]++] = i;
+        }
+
+        // Count links per slot and bucket them with a counting sort
+        for (int i = 0; i < linkSlots.size(); i++) {
+            offsets[linkSlots.get(i) + 1]++;
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            offsets[slot + 1] += offsets[slot];
+        }
+        int[] cursor = new int[slotCount];
+        System.arraycopy(offsets, 0, cursor, 0, slotCount);
+        int[] targets = new int[linkSlots.size()];
+        for (int link : byNode) {
+            targets[cursor[linkSlots.get(link)]++] = linkNodes.get(link);
+        }
+
+        // Remove duplicate links within each slot, the same edge is usually seen in many trees
+        int write = 0;
+        int start = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int end = offsets[slot + 1];
+            offsets[slot] = write;
+            for (int i = start; i < end; i++) {
+                if (i == start || targets[i] != targets[i - 1]) {
+                    targets[write++] = targets[i];
+                }
+            }
+            start = end;
+        }
+        offsets[slotCount] = write;
+        return write == targets.length ? targets : Arrays.copyOf(targets, write);
+    }
+
+    private void expand(int[] offsets, int[] targets, IntList linkSlots, IntList linkNodes) {
+        for (int slot = 0; slot < frozenSlots; slot++) {
+            for (int i = offsets[slot]; i < offsets[slot + 1]; i++) {
+                linkSlots.add(slot);
+                linkNodes.add(targets[i]);
+            }
+        }
+    }
+}
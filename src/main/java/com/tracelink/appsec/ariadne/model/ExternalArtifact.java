@@ -16,30 +16,57 @@ OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
  */
 package com.tracelink.appsec.ariadne.model;
 
-import com.tracelink.appsec.ariadne.utils.Utils;
-
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 
 public class ExternalArtifact implements Artifact {
-    private String fullName;
-    private String version;
+    private GraphView graph;
+    private int id;
+    private int slot;
+    // Taken from the coordinate when there is one, else cut from the name the first time it is needed
+    private String artifactName;
     private int findings = 0;
-    private Set<Artifact> parents = new TreeSet<>();
-    private Set<Artifact> children = new TreeSet<>();
+    private int component = -1;
 
     public ExternalArtifact(String artifact) {
-        this.fullName = artifact;
-        this.version = Utils.getVersion(artifact);
+        this(new DependencyGraph(), Coordinate.of(artifact));
+    }
+
+    ExternalArtifact(DependencyGraph graph, Coordinate coordinate) {
+        this.graph = graph;
+        this.id = graph.addNode(coordinate.getFullName(), this);
+        this.slot = graph.addSlot(id, coordinate.getVersion());
+        this.artifactName = coordinate.getArtifactName();
+    }
+
+    ExternalArtifact(MappedGraph graph, int id) {
+        this.graph = graph;
+        this.id = id;
+        this.slot = graph.getLatestSlot(id);
+    }
+
+    @Override
+    public int getId() {
+        return id;
     }
 
     @Override
     public String getName() {
-        return fullName;
+        return graph.getName(id);
+    }
+
+    @Override
+    public String getArtifactName() {
+        if (artifactName == null) {
+            String name = getName();
+            artifactName = name.substring(0, name.length() - graph.getVersion(slot).length() - 1);
+        }
+        return artifactName;
+    }
+
+    int getSlot() {
+        return slot;
     }
 
     @Override
@@ -49,7 +76,7 @@ public class ExternalArtifact implements Artifact {
 
     @Override
     public int getConnections() {
-        return parents.size();
+        return graph.getParentCount(slot);
     }
 
     @Override
@@ -59,7 +86,7 @@ public class ExternalArtifact implements Artifact {
 
     @Override
     public Set<String> getVersions() {
-        return Collections.singleton(version);
+        return Collections.singleton(graph.getVersion(slot));
     }
 
     @Override
@@ -79,38 +106,33 @@ public class ExternalArtifact implements Artifact {
 
     @Override
     public void addParent(String version, Artifact parent) {
-        if (this.version.equals(version)) {
-            parents.add(parent);
+        if (graph.getVersion(slot).equals(version)) {
+            DependencyGraph writable = DependencyGraph.writable(graph);
+            writable.addParentLink(slot, writable.idOf(parent));
         }
     }
 
     @Override
     public void addChild(String version, Artifact child) {
-        if (this.version.equals(version)) {
-            children.add(child);
+        if (graph.getVersion(slot).equals(version)) {
+            DependencyGraph writable = DependencyGraph.writable(graph);
+            writable.addChildLink(slot, writable.idOf(child));
         }
     }
 
     @Override
-    public void findCycles(List<String> visited) {
-        throw new UnsupportedOperationException("Cannot find cycles for an external artifact.");
+    public int getComponent() {
+        return component;
     }
 
     @Override
-    public void assignTiers() {
-        assignTier(0, fullName, fullName, new ArrayList<>());
+    public void setComponent(int component) {
+        this.component = component;
     }
 
     @Override
-    public void assignTier(int tier, String root, String direct, List<String> visited) {
-        if (visited.contains(fullName)) {
-            return;
-        }
-        List<String> visitedCopy = new ArrayList<>(visited);
-        visitedCopy.add(fullName);
-        for (Artifact parent : parents) {
-            parent.assignTier(tier, root, fullName, visitedCopy);
-        }
+    public void setTier(int tier) {
+        throw new UnsupportedOperationException("Cannot set the tier of an external artifact.");
     }
 
     @Override
@@ -118,13 +140,23 @@ public class ExternalArtifact implements Artifact {
         throw new UnsupportedOperationException("Cannot get internal upgrades for an external artifact.");
     }
 
+    @Override
+    public void addInternalUpgrade(String child) {
+        throw new UnsupportedOperationException("Cannot add internal upgrades to an external artifact.");
+    }
+
     @Override
     public Map<String, Set<String>> getExternalUpgrades() {
         throw new UnsupportedOperationException("Cannot get external upgrades for an external artifact.");
     }
 
+    @Override
+    public void addExternalUpgrade(String child, String root) {
+        throw new UnsupportedOperationException("Cannot add external upgrades to an external artifact.");
+    }
+
     @Override
     public int compareTo(Artifact o) {
-        return fullName.compareTo(o.getName());
+        return getName().compareTo(o.getName());
     }
 }
@@ -0,0 +1,54 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.model;
+
+import java.util.List;
+
+// Read-only structure of a dependency graph. Artifacts are numbered by id and every artifact version owns a slot, the
+// child and parent rows of a slot hold artifact ids in ascending order. The artifact objects only collect findings and
+// analysis results.
+public interface GraphView {
+    Artifact getArtifact(String name);
+
+    Artifact getArtifact(int id);
+
+    List<Artifact> getArtifacts();
+
+    int size();
+
+    int getSlotCount();
+
+    String getName(int id);
+
+    int getNode(int slot);
+
+    String getVersion(int slot);
+
+    boolean isInternal(int id);
+
+    int getLatestSlot(int id);
+
+    int getChildCount(int slot);
+
+    int getChild(int slot, int index);
+
+    int getParentCount(int slot);
+
+    int getParent(int slot, int index);
+
+    boolean hasChild(int slot, int child);
+}
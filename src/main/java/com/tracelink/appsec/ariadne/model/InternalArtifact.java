@@ -16,34 +16,58 @@ OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
  */
 package com.tracelink.appsec.ariadne.model;
 
-import com.tracelink.appsec.ariadne.utils.Utils;
-
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.stream.IntStream;
 
 public class InternalArtifact implements Artifact {
-    private String artifactName;
-    private TreeSet<InternalVersion> versions = new TreeSet<>();
+    private GraphView graph;
+    private int id;
+    private Map<String, InternalVersion> versions = new HashMap<>();
+    private InternalVersion latestVersion;
     private int tier = -1;
     private Set<String> internalUpgrades = new TreeSet<>();
     private Map<String, Set<String>> externalUpgrades = new TreeMap<>();
-    private Set<String> cycles = new HashSet<>();
+    private int component = -1;
 
     public InternalArtifact(String artifact) {
-        this.artifactName = Utils.getArtifactName(artifact);
-        versions.add(new InternalVersion(Utils.getVersion(artifact)));
+        this(new DependencyGraph(), Coordinate.of(artifact));
+    }
+
+    InternalArtifact(DependencyGraph graph, Coordinate coordinate) {
+        this.graph = graph;
+        this.id = graph.addNode(coordinate.getArtifactName(), this);
+        addVersion(coordinate.getVersion());
+    }
+
+    InternalArtifact(MappedGraph graph, int id) {
+        this.graph = graph;
+        this.id = id;
+        for (int i = 0; i < graph.getVersionCount(id); i++) {
+            int slot = graph.getVersionSlot(id, i);
+            versions.put(graph.getVersion(slot), new InternalVersion(graph, slot));
+        }
+        // The snapshot keeps the latest version that was chosen when it was written
+        latestVersion = versions.get(graph.getVersion(graph.getLatestSlot(id)));
+    }
+
+    @Override
+    public int getId() {
+        return id;
     }
 
     @Override
     public String getName() {
-        return artifactName;
+        return graph.getName(id);
+    }
+
+    @Override
+    public String getArtifactName() {
+        // Internal artifacts are named without their versions
+        return getName();
     }
 
     @Override
@@ -53,7 +77,7 @@ public class InternalArtifact implements Artifact {
 
     @Override
     public int getConnections() {
-        return versions.stream().mapToInt(InternalVersion::getConnections).sum();
+        return versions.values().stream().mapToInt(InternalVersion::getConnections).sum();
     }
 
     @Override
@@ -63,9 +87,7 @@ public class InternalArtifact implements Artifact {
 
     @Override
     public Set<String> getVersions() {
-        Set<String> versionNumbers = new TreeSet<>();
-        versions.forEach(v -> versionNumbers.add(v.getVersion()));
-        return versionNumbers;
+        return new TreeSet<>(versions.keySet());
     }
 
     @Override
@@ -80,91 +102,53 @@ public class InternalArtifact implements Artifact {
 
     @Override
     public void addVersion(String version) {
-        for (InternalVersion v : versions) {
-            // If the given version exists, do nothing
-            if (v.getVersion().equals(version)) {
-                return;
+        // If the given version does not exist, add it
+        if (!versions.containsKey(version)) {
+            DependencyGraph writable = DependencyGraph.writable(graph);
+            InternalVersion internalVersion = new InternalVersion(writable, writable.addSlot(id, version));
+            versions.put(version, internalVersion);
+            // Of two equally ranked versions the first one seen stays the latest
+            if (latestVersion == null || internalVersion.compareTo(latestVersion) < 0) {
+                latestVersion = internalVersion;
             }
         }
-        // If the given version does not exist, add it
-        versions.add(new InternalVersion(version));
     }
 
     @Override
     public void addParent(String version, Artifact parent) {
-        for (InternalVersion v : versions) {
-            // If the given version exists, add parent to that version
-            if (v.getVersion().equals(version)) {
-                v.addParent(parent);
-                return;
-            }
+        // If the given version exists, add parent to that version
+        InternalVersion internalVersion = versions.get(version);
+        if (internalVersion != null) {
+            internalVersion.addParent(parent);
         }
     }
 
     @Override
     public void addChild(String version, Artifact child) {
-        for (InternalVersion v : versions) {
-            // If the given version exists, add parent to that version
-            if (v.getVersion().equals(version)) {
-                v.addChild(child);
-                return;
-            }
+        // If the given version exists, add child to that version
+        InternalVersion internalVersion = versions.get(version);
+        if (internalVersion != null) {
+            internalVersion.addChild(child);
         }
     }
 
     @Override
-    public void findCycles(List<String> visited) {
-        if (visited.size() == 0 || versions.first().hasChild(visited.get(visited.size() - 1))) {
-            if (visited.contains(artifactName)) {
-                int index = visited.indexOf(artifactName);
-                IntStream.range(index + 1, visited.size()).forEach(i -> cycles.add(visited.get(i)));
-                return;
-            }
-
-            List<String> visitedCopy = new ArrayList<>(visited);
-            visitedCopy.add(artifactName);
-            List<Artifact> updated = new ArrayList<>();
-            versions.forEach(v -> v.findCycles(visitedCopy, updated));
-        }
+    public int getComponent() {
+        return component;
     }
 
     @Override
-    public void assignTiers() {
-        throw new UnsupportedOperationException("Cannot start assigning tiers from an internal artifact.");
+    public void setComponent(int component) {
+        this.component = component;
     }
 
-    @Override
-    public void assignTier(int tier, String root, String child, List<String> visited) {
-        // Only do something if the child is a child of the most recent version of this artifact
-        if (versions.first().hasChild(child)) {
-            // Add vulnerability to the correct list of upgrades
-            if (tier == 0) {
-                if (externalUpgrades.containsKey(child)) {
-                    externalUpgrades.get(child).add(root);
-                } else {
-                    Set<String> upgradeSet = new TreeSet<>();
-                    upgradeSet.add(root);
-                    externalUpgrades.put(child, upgradeSet);
-                }
-            } else {
-                internalUpgrades.add(child);
-            }
-
-            // Prevent infinite looping
-            if (visited.contains(artifactName)) {
-                return;
-            }
+    InternalVersion getLatestVersion() {
+        return latestVersion;
+    }
 
-            // Update tier, if the tier of this artifact is less than the given one
-            if (this.tier < tier) {
-                this.tier = tier;
-            }
-            List<String> visitedCopy = new ArrayList<>(visited);
-            visitedCopy.add(artifactName);
-            List<Artifact> updated = new ArrayList<>();
-            versions.forEach(v -> v.assignTier(tier,
-                    root, artifactName, visitedCopy, updated, cycles));
-        }
+    @Override
+    public void setTier(int tier) {
+        this.tier = tier;
     }
 
     @Override
@@ -172,13 +156,23 @@ public class InternalArtifact implements Artifact {
         return Collections.unmodifiableSet(internalUpgrades);
     }
 
+    @Override
+    public void addInternalUpgrade(String child) {
+        internalUpgrades.add(child);
+    }
+
     @Override
     public Map<String, Set<String>> getExternalUpgrades() {
         return Collections.unmodifiableMap(externalUpgrades);
     }
 
+    @Override
+    public void addExternalUpgrade(String child, String root) {
+        externalUpgrades.computeIfAbsent(child, k -> new TreeSet<>()).add(root);
+    }
+
     @Override
     public int compareTo(Artifact o) {
-        return artifactName.compareTo(o.getName());
+        return getName().compareTo(o.getName());
     }
 }
@@ -16,112 +16,49 @@ OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
  */
 package com.tracelink.appsec.ariadne.model;
 
-import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
-
 class InternalVersion implements Comparable<InternalVersion> {
+    private GraphView graph;
+    private int slot;
     private String version;
-    private Set<Artifact> parents = new TreeSet<>();
-    private Set<Artifact> children = new TreeSet<>();
+    private VersionKey key;
 
     InternalVersion(String version) {
+        this.slot = -1;
         this.version = version;
+        this.key = VersionKey.parse(version);
+    }
+
+    InternalVersion(GraphView graph, int slot) {
+        this.graph = graph;
+        this.slot = slot;
+        this.version = graph.getVersion(slot);
+        this.key = VersionKey.parse(version);
     }
 
     public String getVersion() {
         return version;
     }
 
-    int getConnections() {
-        return parents.size();
+    int getSlot() {
+        return slot;
     }
 
-    boolean hasChild(String child) {
-        return children.stream().anyMatch(a -> a.getName().equals(child));
+    int getConnections() {
+        return graph.getParentCount(slot);
     }
 
     void addParent(Artifact parent) {
-        parents.add(parent);
+        DependencyGraph writable = DependencyGraph.writable(graph);
+        writable.addParentLink(slot, writable.idOf(parent));
     }
 
     void addChild(Artifact child) {
-        children.add(child);
-    }
-
-    void assignTier(int tier, String root, String direct, List<String> visited, List<Artifact> updated,
-                    Set<String> cycles) {
-        parents.forEach(parent -> {
-            // Don't visit the ones updated in other versions of this artifact
-            if (!updated.contains(parent)) {
-                updated.add(parent);
-                parent.assignTier(cycles.contains(parent.getName()) ? tier : tier + 1, root, direct, visited);
-            }
-        });
-    }
-
-    void findCycles(List<String> visited, List<Artifact> updated) {
-        for (Artifact parent : parents) {
-            // Don't visit the ones updated in other versions of this artifact
-            if (!updated.contains(parent)) {
-                updated.add(parent);
-                parent.findCycles(visited);
-            }
-        }
+        DependencyGraph writable = DependencyGraph.writable(graph);
+        writable.addChildLink(slot, writable.idOf(child));
     }
 
     @Override
     public int compareTo(InternalVersion o) {
-        String[] thisComponents = version.split("-", 2);
-        String[] oComponents = o.getVersion().split("-", 2);
-
-        int compareNum = compareVersionNum(thisComponents[0], oComponents[0]);
-        if (compareNum != 0) {
-            return compareNum;
-        }
-
-        if (thisComponents.length == 2 && oComponents.length == 2) {
-            return compareBuildNum(thisComponents[1], oComponents[1]);
-        } else if (thisComponents.length == 2) {
-            return -1;
-        } else if (oComponents.length == 2) {
-            return 1;
-        } else {
-            return 0;
-        }
-    }
-
-    private int compareVersionNum(String s1, String s2) {
-        String versionNumRegex = "\\d+(\\.\\d+)*";
-        if (s1.matches(versionNumRegex) && s2.matches(versionNumRegex)) {
-            String[] s1components = s1.split("\\.");
-            String[] s2components = s2.split("\\.");
-
-            for (int i = 0; i < s1components.length && i < s2components.length; i++) {
-                int compareDigit = Integer.parseInt(s2components[i]) - Integer.parseInt(s1components[i]);
-                if (compareDigit != 0) {
-                    return compareDigit;
-                }
-            }
-            return s2components.length - s1components.length;
-        } else if (s1.matches(versionNumRegex)) {
-            return -1;
-        } else if (s2.matches(versionNumRegex)) {
-            return 1;
-        } else {
-            return s2.compareTo(s1);
-        }
-    }
-
-    private int compareBuildNum(String s1, String s2) {
-        if (s1.equals(s2)) {
-            return 0;
-        } else if (s1.contains("SNAPSHOT")) {
-            return -1;
-        } else if (s2.contains("SNAPSHOT")) {
-            return 1;
-        } else {
-            return Integer.parseInt(s2) - Integer.parseInt(s1);
-        }
+        return key.compareTo(o.key);
     }
 }
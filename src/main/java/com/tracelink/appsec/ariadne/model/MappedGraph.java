@@ -0,0 +1,349 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// A dependency graph snapshot used in place through a read-only mapping of the file. Every record has a fixed width
+// and strings live in one arena addressed by offset, so opening a snapshot only reads its header and processes that
+// map the same file share one copy of it in the page cache. Nothing read from the body is checked, so a damaged file
+// must be caught by verify before the graph is used. Artifact objects are only created as the analysis asks for
+// them, to hold its findings and results.
+//
+// Layout, all ints big endian:
+//   header        magic, version, identifier count, artifact count, slot count, child link count, parent link count,
+//                 name index capacity, arena length, reserved
+//   identifiers   (arena offset, length) per internal identifier
+//   artifacts     (name offset, name length, flags, latest slot) per artifact id
+//   versions      offsets per artifact id into the slot list, then the slots of every artifact
+//   slots         (artifact id, version offset, version length) per slot
+//   children      row offsets per slot, then the child ids of every row
+//   parents       row offsets per slot, then the parent ids of every row
+//   name index    open addressing table of (artifact id + 1) by name hash, zero marks an empty bucket
+//   arena         UTF-8 bytes of all names, versions and identifiers
+//   checksum      CRC32 of everything before it, as a long
+public final class MappedGraph implements GraphView {
+    public static final int MAGIC = 0x41524447;
+    public static final int VERSION = 2;
+    public static final int HEADER_SIZE = 40;
+    public static final int FLAG_INTERNAL = 1;
+
+    private File file;
+    private ByteBuffer buffer;
+    private int identifierCount;
+    private int artifactCount;
+    private int slotCount;
+    private int indexCapacity;
+    private int identifiers;
+    private int artifacts;
+    private int versionOffsets;
+    private int versionSlots;
+    private int slots;
+    private int childOffsets;
+    private int children;
+    private int parentOffsets;
+    private int parents;
+    private int index;
+    private int arena;
+    private int checksum;
+    private volatile String[] names;
+    private Artifact[] artifactObjects;
+
+    private MappedGraph(File file, ByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+    public static MappedGraph open(File file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Dependency snapshot larger than 2 GB - " + file.getPath());
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        MappedGraph graph = new MappedGraph(file, buffer);
+        graph.readHeader();
+        return graph;
+    }
+
+    private void readHeader() throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a dependency snapshot - " + file.getPath());
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported dependency snapshot version " + version + " - " + file.getPath());
+        }
+        identifierCount = checkCount(buffer.getInt(8));
+        artifactCount = checkCount(buffer.getInt(12));
+        slotCount = checkCount(buffer.getInt(16));
+        int childLinkCount = checkCount(buffer.getInt(20));
+        int parentLinkCount = checkCount(buffer.getInt(24));
+        indexCapacity = checkCount(buffer.getInt(28));
+        int arenaLength = checkCount(buffer.getInt(32));
+        // The index always keeps an empty bucket, so that a lookup of an unknown name ends
+        if (Integer.bitCount(indexCapacity) != 1 || indexCapacity <= artifactCount) {
+            throw new IOException("Invalid name index in dependency snapshot - " + file.getPath());
+        }
+
+        long offset = HEADER_SIZE;
+        identifiers = section(offset);
+        offset += 8L * identifierCount;
+        artifacts = section(offset);
+        offset += 16L * artifactCount;
+        versionOffsets = section(offset);
+        offset += 4L * (artifactCount + 1);
+        versionSlots = section(offset);
+        offset += 4L * slotCount;
+        slots = section(offset);
+        offset += 12L * slotCount;
+        childOffsets = section(offset);
+        offset += 4L * (slotCount + 1);
+        children = section(offset);
+        offset += 4L * childLinkCount;
+        parentOffsets = section(offset);
+        offset += 4L * (slotCount + 1);
+        parents = section(offset);
+        offset += 4L * parentLinkCount;
+        index = section(offset);
+        offset += 4L * indexCapacity;
+        arena = section(offset);
+        offset += arenaLength;
+        checksum = section(offset);
+        if (offset + 8 != buffer.capacity()) {
+            throw new IOException("Truncated dependency snapshot - " + file.getPath());
+        }
+    }
+
+    // Reads the whole file to compare it with its checksum
+    public void verify() throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer content = buffer.duplicate();
+        content.position(0);
+        content.limit(checksum);
+        crc.update(content);
+        if (buffer.getLong(checksum) != crc.getValue()) {
+            throw new IOException("Corrupt dependency snapshot - " + file.getPath());
+        }
+    }
+
+    public List<String> getInternalIdentifiers() {
+        List<String> internalIdentifiers = new ArrayList<>();
+        for (int i = 0; i < identifierCount; i++) {
+            internalIdentifiers.add(readString(buffer.getInt(identifiers + 8 * i),
+                    buffer.getInt(identifiers + 8 * i + 4)));
+        }
+        return Collections.unmodifiableList(internalIdentifiers);
+    }
+
+    public int find(String name) {
+        int mask = indexCapacity - 1;
+        int bucket = hash(name) & mask;
+        byte[] bytes = null;
+        while (true) {
+            int entry = buffer.getInt(index + 4 * bucket);
+            if (entry == 0) {
+                return -1;
+            }
+            int id = entry - 1;
+            if (bytes == null) {
+                bytes = name.getBytes(StandardCharsets.UTF_8);
+            }
+            if (equals(buffer.getInt(artifacts + 16 * id), buffer.getInt(artifacts + 16 * id + 4), bytes)) {
+                return id;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+    }
+
+    @Override
+    public Artifact getArtifact(String name) {
+        int id = find(name);
+        return id < 0 ? null : getArtifact(id);
+    }
+
+    @Override
+    public synchronized Artifact getArtifact(int id) {
+        if (id < 0 || id >= artifactCount) {
+            throw new IndexOutOfBoundsException("Unknown artifact id - " + id);
+        }
+        if (artifactObjects == null) {
+            artifactObjects = new Artifact[artifactCount];
+        }
+        Artifact artifact = artifactObjects[id];
+        if (artifact == null) {
+            artifact = isInternal(id) ? new InternalArtifact(this, id) : new ExternalArtifact(this, id);
+            artifactObjects[id] = artifact;
+        }
+        return artifact;
+    }
+
+    @Override
+    public List<Artifact> getArtifacts() {
+        List<Artifact> sorted = new ArrayList<>(artifactCount);
+        for (int id = 0; id < artifactCount; id++) {
+            sorted.add(getArtifact(id));
+        }
+        sorted.sort(Comparator.comparing(Artifact::getName));
+        return sorted;
+    }
+
+    @Override
+    public int size() {
+        return artifactCount;
+    }
+
+    @Override
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    @Override
+    public String getName(int id) {
+        // Names are decoded once, on first use
+        String[] decoded = names;
+        if (decoded == null) {
+            decoded = new String[artifactCount];
+            names = decoded;
+        }
+        String name = decoded[id];
+        if (name == null) {
+            name = readString(buffer.getInt(artifacts + 16 * id), buffer.getInt(artifacts + 16 * id + 4));
+            decoded[id] = name;
+        }
+        return name;
+    }
+
+    @Override
+    public int getNode(int slot) {
+        return buffer.getInt(slots + 12 * slot);
+    }
+
+    @Override
+    public String getVersion(int slot) {
+        return readString(buffer.getInt(slots + 12 * slot + 4), buffer.getInt(slots + 12 * slot + 8));
+    }
+
+    @Override
+    public boolean isInternal(int id) {
+        return (buffer.getInt(artifacts + 16 * id + 8) & FLAG_INTERNAL) != 0;
+    }
+
+    @Override
+    public int getLatestSlot(int id) {
+        return buffer.getInt(artifacts + 16 * id + 12);
+    }
+
+    public int getVersionCount(int id) {
+        return buffer.getInt(versionOffsets + 4 * (id + 1)) - buffer.getInt(versionOffsets + 4 * id);
+    }
+
+    public int getVersionSlot(int id, int index) {
+        return buffer.getInt(versionSlots + 4 * (buffer.getInt(versionOffsets + 4 * id) + index));
+    }
+
+    @Override
+    public int getChildCount(int slot) {
+        return buffer.getInt(childOffsets + 4 * (slot + 1)) - buffer.getInt(childOffsets + 4 * slot);
+    }
+
+    @Override
+    public int getChild(int slot, int index) {
+        return buffer.getInt(children + 4 * (buffer.getInt(childOffsets + 4 * slot) + index));
+    }
+
+    @Override
+    public int getParentCount(int slot) {
+        return buffer.getInt(parentOffsets + 4 * (slot + 1)) - buffer.getInt(parentOffsets + 4 * slot);
+    }
+
+    @Override
+    public int getParent(int slot, int index) {
+        return buffer.getInt(parents + 4 * (buffer.getInt(parentOffsets + 4 * slot) + index));
+    }
+
+    @Override
+    public boolean hasChild(int slot, int child) {
+        // Rows are sorted by id
+        int low = buffer.getInt(childOffsets + 4 * slot);
+        int high = buffer.getInt(childOffsets + 4 * (slot + 1)) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int value = buffer.getInt(children + 4 * middle);
+            if (value < child) {
+                low = middle + 1;
+            } else if (value > child) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Spreads the bits of String.hashCode, the writer places names in the index with the same function
+    public static int hash(String name) {
+        int h = name.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(arena + offset);
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean equals(int offset, int length, byte[] bytes) {
+        if (length != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(arena + offset + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int section(long offset) throws IOException {
+        if (offset + 8 > buffer.capacity()) {
+            throw new IOException("Truncated dependency snapshot - " + file.getPath());
+        }
+        return (int) offset;
+    }
+
+    private int checkCount(int count) throws IOException {
+        if (count < 0) {
+            throw new IOException("Negative length in dependency snapshot - " + file.getPath());
+        }
+        return count;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.model;
+
+import java.util.Arrays;
+
+public class StringTable {
+    private String[] strings = new String[64];
+    private int[] hashes = new int[64];
+    // Open addressing table holding (id + 1) for each string, zero marks an empty bucket
+    private int[] buckets = new int[128];
+    private int size = 0;
+
+    public int intern(String value) {
+        int hash = value.hashCode();
+        int mask = buckets.length - 1;
+        int bucket = mix(hash) & mask;
+        while (buckets[bucket] != 0) {
+            int id = buckets[bucket] - 1;
+            if (hashes[id] == hash && strings[id].equals(value)) {
+                return id;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        // The string is new, so assign it the next id
+        if (size == strings.length) {
+            strings = Arrays.copyOf(strings, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        strings[id] = value;
+        hashes[id] = hash;
+        buckets[bucket] = id + 1;
+        if (size * 2 > buckets.length) {
+            rehash(buckets.length * 2);
+        }
+        return id;
+    }
+
+    public int find(String value) {
+        int hash = value.hashCode();
+        int mask = buckets.length - 1;
+        int bucket = mix(hash) & mask;
+        while (buckets[bucket] != 0) {
+            int id = buckets[bucket] - 1;
+            if (hashes[id] == hash && strings[id].equals(value)) {
+                return id;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        return -1;
+    }
+
+    public String get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Unknown string id - " + id);
+        }
+        return strings[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        int[] rehashed = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            int bucket = mix(hashes[id]) & mask;
+            while (rehashed[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            rehashed[bucket] = id + 1;
+        }
+        buckets = rehashed;
+    }
+
+    private static int mix(int hash) {
+        // Spread the bits of String.hashCode so that similar coordinates do not cluster in the table
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,209 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.model;
+
+// A version string parsed once into the parts that decide its ordering. Versions look like "1.2.3-45", the part before
+// the first dash is compared component by component and the part after it as a build number. Smaller keys are newer.
+final class VersionKey implements Comparable<VersionKey> {
+    private static final int SNAPSHOT_BUILD = 0;
+    private static final int NUMERIC_BUILD = 1;
+    private static final int OTHER_BUILD = 2;
+    private static final int NO_BUILD = 3;
+
+    // Numbers with more digits than this are kept as digit strings
+    private static final int MAX_PACKED_DIGITS = 18;
+
+    private final String number;
+    // Components of a dotted numeric version, null if the number is not one. -1 marks a component that did not fit
+    private final long[] components;
+    private final String[] largeComponents;
+    private final int buildKind;
+    private final String build;
+    private final long buildNumber;
+    private final String largeBuildNumber;
+
+    private VersionKey(String number, long[] components, String[] largeComponents, int buildKind, String build,
+            long buildNumber, String largeBuildNumber) {
+        this.number = number;
+        this.components = components;
+        this.largeComponents = largeComponents;
+        this.buildKind = buildKind;
+        this.build = build;
+        this.buildNumber = buildNumber;
+        this.largeBuildNumber = largeBuildNumber;
+    }
+
+    static VersionKey parse(String version) {
+        int dash = version.indexOf('-');
+        String number = dash < 0 ? version : version.substring(0, dash);
+        String build = dash < 0 ? null : version.substring(dash + 1);
+
+        long[] components = null;
+        String[] largeComponents = null;
+        if (isDottedNumber(number)) {
+            int count = 1;
+            for (int i = 0; i < number.length(); i++) {
+                count += number.charAt(i) == '.' ? 1 : 0;
+            }
+            components = new long[count];
+            int start = 0;
+            for (int c = 0; c < count; c++) {
+                int end = number.indexOf('.', start);
+                end = end < 0 ? number.length() : end;
+                components[c] = parseDigits(number, start, end);
+                if (components[c] < 0) {
+                    if (largeComponents == null) {
+                        largeComponents = new String[count];
+                    }
+                    largeComponents[c] = stripZeros(number, start, end);
+                }
+                start = end + 1;
+            }
+        }
+
+        int buildKind = NO_BUILD;
+        long buildNumber = 0;
+        String largeBuildNumber = null;
+        if (build != null) {
+            if (build.contains("SNAPSHOT")) {
+                buildKind = SNAPSHOT_BUILD;
+            } else if (isDigits(build)) {
+                buildKind = NUMERIC_BUILD;
+                buildNumber = parseDigits(build, 0, build.length());
+                if (buildNumber < 0) {
+                    largeBuildNumber = stripZeros(build, 0, build.length());
+                }
+            } else {
+                buildKind = OTHER_BUILD;
+            }
+        }
+        return new VersionKey(number, components, largeComponents, buildKind, build, buildNumber,
+                largeBuildNumber);
+    }
+
+    @Override
+    public int compareTo(VersionKey o) {
+        int compareNumber = compareNumber(o);
+        if (compareNumber != 0) {
+            return compareNumber;
+        }
+        // A version with a build is newer than the same version without one
+        if (buildKind != o.buildKind) {
+            return Integer.compare(buildKind, o.buildKind);
+        }
+        switch (buildKind) {
+            case NUMERIC_BUILD:
+                return -compareNumbers(buildNumber, largeBuildNumber, o.buildNumber, o.largeBuildNumber);
+            case SNAPSHOT_BUILD:
+            case OTHER_BUILD:
+                return o.build.compareTo(build);
+            default:
+                return 0;
+        }
+    }
+
+    private int compareNumber(VersionKey o) {
+        if (components != null && o.components != null) {
+            for (int i = 0; i < components.length && i < o.components.length; i++) {
+                int compareComponent = compareNumbers(components[i], component(largeComponents, i),
+                        o.components[i], component(o.largeComponents, i));
+                if (compareComponent != 0) {
+                    return -compareComponent;
+                }
+            }
+            // More components is newer, i.e. 1.0.0 comes before 1.0
+            return Integer.compare(o.components.length, components.length);
+        } else if (components != null) {
+            return -1;
+        } else if (o.components != null) {
+            return 1;
+        } else {
+            return o.number.compareTo(number);
+        }
+    }
+
+    private static String component(String[] largeComponents, int index) {
+        return largeComponents == null ? null : largeComponents[index];
+    }
+
+    private static int compareNumbers(long n1, String large1, long n2, String large2) {
+        if (large1 == null && large2 == null) {
+            return Long.compare(n1, n2);
+        } else if (large1 == null) {
+            return -1;
+        } else if (large2 == null) {
+            return 1;
+        }
+        // Both are stripped of leading zeros, so the longer one is larger
+        if (large1.length() != large2.length()) {
+            return Integer.compare(large1.length(), large2.length());
+        }
+        return large1.compareTo(large2);
+    }
+
+    private static boolean isDottedNumber(String value) {
+        if (value.isEmpty() || value.charAt(0) == '.' || value.charAt(value.length() - 1) == '.') {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                if (value.charAt(i - 1) == '.') {
+                    return false;
+                }
+            } else if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigits(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns -1 if the number has too many digits to pack
+    private static long parseDigits(String value, int start, int end) {
+        while (start < end - 1 && value.charAt(start) == '0') {
+            start++;
+        }
+        if (end - start > MAX_PACKED_DIGITS) {
+            return -1;
+        }
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            result = result * 10 + (value.charAt(i) - '0');
+        }
+        return result;
+    }
+
+    private static String stripZeros(String value, int start, int end) {
+        while (start < end - 1 && value.charAt(start) == '0') {
+            start++;
+        }
+        return value.substring(start, end);
+    }
+}
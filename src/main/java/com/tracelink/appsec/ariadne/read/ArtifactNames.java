@@ -0,0 +1,103 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.read;
+
+import com.tracelink.appsec.ariadne.utils.Utils;
+
+// Builds artifact names from slices of a line, only creating a new string the first time a name is seen
+public final class ArtifactNames {
+
+    private ArtifactNames() {
+    }
+
+    // Same as Utils.getFullName, but well formatted names are read without decoding the slice
+    public static String getFullName(ByteLine line, int from, int to) {
+        int first = indexOf(line, ':', from, to);
+        int second = first < 0 ? -1 : indexOf(line, ':', first + 1, to);
+        if (second < 0 || second == to - 1 || indexOf(line, ':', second + 1, to) >= 0) {
+            // Anything but three components goes through the recovery, which prints its warnings
+            return Utils.getFullName(line.toString(from, to));
+        }
+        line.clearScratch();
+        appendTrimmed(line, from, first);
+        line.appendScratch(":");
+        appendTrimmed(line, first + 1, second);
+        line.appendScratch(":");
+        appendTrimmed(line, second + 1, to);
+        return line.internScratch(false);
+    }
+
+    // Reduces a Maven tree entry "group:artifact:packaging:version[:scope]" to "group:artifact:version"
+    public static String getTreeName(ByteLine line, int from, int to) {
+        int[] starts = new int[4];
+        int[] ends = new int[4];
+        int components = 0;
+        int nonEmpty = 0;
+        int start = from;
+        while (true) {
+            int end = indexOf(line, ':', start, to);
+            if (end < 0) {
+                end = to;
+            }
+            if (components < 4) {
+                starts[components] = start;
+                ends[components] = end;
+            }
+            components++;
+            if (end > start) {
+                nonEmpty = components;
+            }
+            if (end == to) {
+                break;
+            }
+            start = end + 1;
+        }
+        // String.split drops trailing empty components, unless the whole entry is empty
+        components = from == to ? 1 : nonEmpty;
+
+        line.clearScratch();
+        appendComponent(line, starts, ends, 0, components);
+        line.appendScratch(":");
+        appendComponent(line, starts, ends, 1, components);
+        line.appendScratch(":");
+        appendComponent(line, starts, ends, 3, components);
+        return line.internScratch(true);
+    }
+
+    private static void appendComponent(ByteLine line, int[] starts, int[] ends, int component, int components) {
+        if (component < components) {
+            line.appendScratch(starts[component], ends[component]);
+        } else {
+            line.appendScratch("null");
+        }
+    }
+
+    private static void appendTrimmed(ByteLine line, int from, int to) {
+        while (from < to && ByteLine.isWhitespace(line.byteAt(from))) {
+            from++;
+        }
+        while (to > from && ByteLine.isWhitespace(line.byteAt(to - 1))) {
+            to--;
+        }
+        line.appendScratch(from, to);
+    }
+
+    private static int indexOf(ByteLine line, char c, int from, int to) {
+        int index = line.indexOf(c, from);
+        return index < to ? index : -1;
+    }
+}
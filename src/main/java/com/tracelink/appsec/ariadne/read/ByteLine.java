@@ -0,0 +1,175 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.read;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// A line of a mapped file, without its line break. The line is only valid until the handler returns, the same
+// instance is reused for the next line. Strings are only built for the parts that are asked for.
+public final class ByteLine {
+    private ByteInterner interner;
+    private ByteBuffer buffer;
+    private int start;
+    private int end;
+    private byte[] scratch = new byte[256];
+    private int scratchLength;
+
+    // A line with its own interner, for readers that collect the bytes of a line themselves
+    public ByteLine() {
+        this(new ByteInterner());
+    }
+
+    ByteLine(ByteInterner interner) {
+        this.interner = interner;
+    }
+
+    public void set(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+    }
+
+    public int length() {
+        return end - start;
+    }
+
+    public byte byteAt(int index) {
+        return buffer.get(start + index);
+    }
+
+    public boolean startsWith(String ascii, int offset) {
+        if (offset < 0 || offset + ascii.length() > length()) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length(); i++) {
+            if (byteAt(offset + i) != ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(String ascii) {
+        for (int i = 0; i + ascii.length() <= length(); i++) {
+            if (startsWith(ascii, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int indexOf(char c, int from) {
+        for (int i = from; i < length(); i++) {
+            if (byteAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Start of the given comma separated column, or -1 if the line has fewer columns. As with String.split, empty
+    // columns at the end of the line do not count.
+    public int columnStart(int column) {
+        int index = 0;
+        for (int i = 0; i < column; i++) {
+            index = indexOf(',', index);
+            if (index < 0) {
+                return -1;
+            }
+            index++;
+        }
+        for (int i = index; i < length(); i++) {
+            if (byteAt(i) != ',') {
+                return index;
+            }
+        }
+        return column == 0 && length() == 0 ? 0 : -1;
+    }
+
+    public int columnEnd(int columnStart) {
+        int index = indexOf(',', columnStart);
+        return index < 0 ? length() : index;
+    }
+
+    // Same as String.trim().isEmpty()
+    public boolean isBlank() {
+        for (int i = 0; i < length(); i++) {
+            if (!isWhitespace(byteAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String toString(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = from; i < to; i++) {
+            bytes[i - from] = byteAt(i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return toString(0, length());
+    }
+
+    // The scratch buffer assembles a value from several parts of the line before it is interned
+
+    public void clearScratch() {
+        scratchLength = 0;
+    }
+
+    public void appendScratch(int from, int to) {
+        ensureScratch(to - from);
+        for (int i = from; i < to; i++) {
+            scratch[scratchLength++] = byteAt(i);
+        }
+    }
+
+    public void appendScratch(String ascii) {
+        ensureScratch(ascii.length());
+        for (int i = 0; i < ascii.length(); i++) {
+            scratch[scratchLength++] = (byte) ascii.charAt(i);
+        }
+    }
+
+    // Returns the scratch contents without leading and trailing whitespace, as String.trim() would
+    public String internScratch(boolean trim) {
+        int from = 0;
+        int to = scratchLength;
+        while (trim && from < to && isWhitespace(scratch[from])) {
+            from++;
+        }
+        while (trim && to > from && isWhitespace(scratch[to - 1])) {
+            to--;
+        }
+        return interner.intern(scratch, from, to);
+    }
+
+    public static boolean isWhitespace(byte b) {
+        return (b & 0xff) <= ' ';
+    }
+
+    private void ensureScratch(int length) {
+        if (scratchLength + length > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, scratchLength + length));
+        }
+    }
+}
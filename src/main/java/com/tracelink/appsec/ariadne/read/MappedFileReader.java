@@ -0,0 +1,90 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.read;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+// Reads the lines of a file straight from memory-mapped chunks. Files larger than a chunk are mapped a chunk at a
+// time, each chunk ending after its last line break.
+public class MappedFileReader {
+    static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+
+    private File file;
+    private int chunkSize;
+
+    public MappedFileReader(File file) {
+        this(file, DEFAULT_CHUNK_SIZE);
+    }
+
+    MappedFileReader(File file, int chunkSize) {
+        this.file = file;
+        this.chunkSize = chunkSize;
+    }
+
+    public void forEachLine(LineHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteLine line = new ByteLine(new ByteInterner());
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(chunkSize, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean last = position + length == size;
+                // Stop after the last line break, the rest of the chunk is mapped again with the next one. A "\r" at
+                // the very end could be the first half of "\r\n", so it is left for the next chunk.
+                int limit = length;
+                if (!last) {
+                    while (limit > 0 && buffer.get(limit - 1) != '\n'
+                            && (buffer.get(limit - 1) != '\r' || limit == length)) {
+                        limit--;
+                    }
+                    if (limit == 0) {
+                        throw new IOException("Line longer than " + chunkSize + " bytes in " + file.getPath());
+                    }
+                }
+                readLines(buffer, limit, line, handler);
+                position += limit;
+            }
+        }
+    }
+
+    // Splits lines the same way as BufferedReader.readLine, on "\n", "\r" or "\r\n"
+    private void readLines(MappedByteBuffer buffer, int limit, ByteLine line, LineHandler handler)
+            throws IOException {
+        int start = 0;
+        int i = 0;
+        while (i < limit) {
+            byte b = buffer.get(i);
+            if (b == '\n' || b == '\r') {
+                line.set(buffer, start, i);
+                handler.accept(line);
+                i += b == '\r' && i + 1 < limit && buffer.get(i + 1) == '\n' ? 2 : 1;
+                start = i;
+            } else {
+                i++;
+            }
+        }
+        if (start < limit) {
+            line.set(buffer, start, limit);
+            handler.accept(line);
+        }
+    }
+}
@@ -0,0 +1,367 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.read.dependency;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Remembers the dependencies read from each file, so only files whose content changed since the previous run are read
+// again. Files with the same size and modification time are taken as unchanged, the others are compared by a digest of
+// their content, so a file that was regenerated with the same bytes is still not read again. Only the index of the
+// cache is held in memory. The dependencies of each file stream from the previous cache or from the reader into the
+// sink and into the new cache at the same time.
+public class CachingDependencyReader implements DependencyReader {
+    public static final String FILE_NAME = "dependencies.state";
+
+    private static final int MAGIC = 0x41524444;
+    private static final int VERSION = 2;
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private DependencyReader reader;
+    private File cacheFile;
+    private int hits;
+    private int misses;
+    private int removed;
+
+    public CachingDependencyReader(DependencyReader reader, String cacheDirectory) {
+        File cacheDir = new File(cacheDirectory);
+        boolean success = cacheDir.mkdirs();
+        if (!success && !cacheDir.isDirectory()) {
+            throw new IllegalArgumentException("Please provide a valid path to the cache directory.");
+        }
+        this.reader = reader;
+        this.cacheFile = new File(cacheDir, FILE_NAME);
+    }
+
+    @Override
+    public void readDependencies(DependencySink sink) throws IOException {
+        // Write next to the old cache and swap it in, so an interrupted run leaves the previous cache intact
+        File temp = new File(cacheFile.getPath() + ".tmp");
+        boolean written = false;
+        try (PreviousCache previous = new PreviousCache(cacheFile); CacheWriter next = new CacheWriter(temp)) {
+            List<CachedFile> current = new ArrayList<>();
+            List<File> changedFiles = new ArrayList<>();
+            Set<String> paths = new HashSet<>();
+            for (File file : getFiles()) {
+                String path = file.getAbsolutePath();
+                CachedFile cached = previous.get(path);
+                if (cached == null || cached.length != file.length() || cached.lastModified != file.lastModified()) {
+                    // Take the stats and digest before reading, so a concurrent change is picked up by the next run
+                    CachedFile updated = new CachedFile(path, file.length(), file.lastModified(), digest(file));
+                    if (cached != null && Arrays.equals(cached.digest, updated.digest)) {
+                        updated.offset = cached.offset;
+                    } else {
+                        changedFiles.add(file);
+                    }
+                    cached = updated;
+                }
+                current.add(cached);
+                paths.add(path);
+            }
+            hits = current.size() - changedFiles.size();
+            misses = changedFiles.size();
+            removed = (int) previous.getPaths().stream().filter(path -> !paths.contains(path)).count();
+
+            // The reader asks for the sink of each changed file in order, the unchanged files before it go first
+            int[] position = {0};
+            try {
+                reader.readDependencies(changedFiles, file -> {
+                    position[0] = copyUntil(file.getAbsolutePath(), current, position[0], previous, next, sink);
+                    next.startFile(current.get(position[0]++));
+                    return (parent, child) -> {
+                        sink.accept(parent, child);
+                        next.writeDependency(parent, child);
+                    };
+                });
+                copyUntil(null, current, position[0], previous, next, sink);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            next.finish();
+            written = true;
+        } finally {
+            if (!written) {
+                Files.deleteIfExists(temp.toPath());
+            }
+        }
+        Files.move(temp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public List<File> getFiles() {
+        return reader.getFiles();
+    }
+
+    @Override
+    public void readDependencies(File file, DependencySink sink) throws IOException {
+        reader.readDependencies(file, sink);
+    }
+
+    // Files whose dependencies were taken from the cache by the last read
+    public int getHits() {
+        return hits;
+    }
+
+    // Files that were read again by the last read
+    public int getMisses() {
+        return misses;
+    }
+
+    // Cached files that no longer exist
+    public int getRemoved() {
+        return removed;
+    }
+
+    // Hands over the cached files from the given position up to the file with the given path, or to the end if the path
+    // is null. A changed file that the reader skipped is left out of the new cache, so it is read again next time.
+    private static int copyUntil(String path, List<CachedFile> current, int position, PreviousCache previous,
+                                 CacheWriter next, DependencySink sink) {
+        try {
+            while (position < current.size() && !current.get(position).path.equals(path)) {
+                CachedFile cached = current.get(position++);
+                if (cached.offset >= 0) {
+                    next.startFile(cached);
+                    previous.copy(cached.offset, (parent, child) -> {
+                        sink.accept(parent, child);
+                        next.writeDependency(parent, child);
+                    });
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return position;
+    }
+
+    private static byte[] digest(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Missing digest algorithm - " + DIGEST_ALGORITHM, e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static class CachedFile {
+        private String path;
+        private long length;
+        private long lastModified;
+        private byte[] digest;
+        // Position of the dependencies in the cache file, or -1 if they are not cached
+        private long offset = -1;
+
+        CachedFile(String path, long length, long lastModified, byte[] digest) {
+            this.path = path;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.digest = digest;
+        }
+    }
+
+    // The cache written by the previous run. The index at its end is read up front, the dependencies of a file only
+    // when they are handed over.
+    private static class PreviousCache implements Closeable {
+        private RandomAccessFile file;
+        private Map<String, CachedFile> index = new HashMap<>();
+
+        PreviousCache(File cacheFile) throws IOException {
+            if (!cacheFile.isFile()) {
+                return;
+            }
+            file = new RandomAccessFile(cacheFile, "r");
+            try {
+                readIndex();
+            } catch (IOException e) {
+                System.out.println("WARNING: Ignoring unreadable dependency cache. " + e.getMessage());
+                index.clear();
+            }
+        }
+
+        private void readIndex() throws IOException {
+            long length = file.length();
+            if (length < 16 || file.readInt() != MAGIC || file.readInt() != VERSION) {
+                throw new IOException("Unknown format - " + length + " bytes");
+            }
+            file.seek(length - 8);
+            long indexOffset = file.readLong();
+            if (indexOffset < 8 || indexOffset > length - 8) {
+                throw new IOException("Index out of bounds - " + indexOffset);
+            }
+            DataInputStream in = open(indexOffset);
+            int fileCount = in.readInt();
+            for (int i = 0; i < fileCount; i++) {
+                String path = in.readUTF();
+                long fileLength = in.readLong();
+                long lastModified = in.readLong();
+                byte[] digest = new byte[in.readUnsignedByte()];
+                in.readFully(digest);
+                CachedFile cached = new CachedFile(path, fileLength, lastModified, digest);
+                cached.offset = in.readLong();
+                if (cached.offset < 8 || cached.offset >= indexOffset) {
+                    throw new IOException("Dependencies out of bounds - " + path);
+                }
+                index.put(path, cached);
+            }
+        }
+
+        CachedFile get(String path) {
+            return index.get(path);
+        }
+
+        Set<String> getPaths() {
+            return index.keySet();
+        }
+
+        void copy(long offset, DependencySink sink) throws IOException {
+            DataInputStream in = open(offset);
+            while (in.readBoolean()) {
+                sink.accept(in.readUTF(), in.readUTF());
+            }
+        }
+
+        // The stream reads through the channel of the file, which stays open until the cache is closed
+        private DataInputStream open(long offset) throws IOException {
+            file.getChannel().position(offset);
+            return new DataInputStream(new BufferedInputStream(Channels.newInputStream(file.getChannel())));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (file != null) {
+                file.close();
+            }
+        }
+    }
+
+    // Writes the dependencies of each file as they arrive, followed by an index of the files and their positions
+    private static class CacheWriter implements Closeable {
+        private CountingOutputStream counter;
+        private DataOutputStream out;
+        private List<CachedFile> index = new ArrayList<>();
+        private boolean inFile = false;
+
+        CacheWriter(File file) throws IOException {
+            counter = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            out = new DataOutputStream(counter);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        // Like writeDependency, called where a checked exception cannot be thrown
+        void startFile(CachedFile cached) {
+            try {
+                endFile();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            CachedFile written = new CachedFile(cached.path, cached.length, cached.lastModified, cached.digest);
+            written.offset = counter.count;
+            index.add(written);
+            inFile = true;
+        }
+
+        // Called from a sink, which cannot throw a checked exception
+        void writeDependency(String parent, String child) {
+            try {
+                out.writeBoolean(true);
+                out.writeUTF(parent);
+                out.writeUTF(child);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            endFile();
+            long indexOffset = counter.count;
+            out.writeInt(index.size());
+            for (CachedFile cached : index) {
+                out.writeUTF(cached.path);
+                out.writeLong(cached.length);
+                out.writeLong(cached.lastModified);
+                out.writeByte(cached.digest.length);
+                out.write(cached.digest);
+                out.writeLong(cached.offset);
+            }
+            out.writeLong(indexOffset);
+        }
+
+        private void endFile() throws IOException {
+            if (inFile) {
+                out.writeBoolean(false);
+                inFile = false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    // Counts the bytes written, which gives the position in the file without asking the buffered stream below
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count = 0;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
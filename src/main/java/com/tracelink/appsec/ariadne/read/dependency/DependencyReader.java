@@ -16,10 +16,39 @@ OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
  */
 package com.tracelink.appsec.ariadne.read.dependency;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 public interface DependencyReader {
-    List<Map.Entry<String, String>> readDependencies() throws IOException;
+    List<File> getFiles();
+
+    void readDependencies(File file, DependencySink sink) throws IOException;
+
+    default void readDependencies(DependencySink sink) throws IOException {
+        readDependencies(getFiles(), file -> sink);
+    }
+
+    // Reads the files in order, handing the dependencies of each file to the sink returned for it
+    default void readDependencies(List<File> files, Function<File, DependencySink> sinks) throws IOException {
+        for (File file : files) {
+            readDependencies(file, sinks.apply(file));
+        }
+    }
+
+    default List<Map.Entry<String, String>> readDependencies() throws IOException {
+        List<Map.Entry<String, String>> dependencies = new ArrayList<>();
+        readDependencies((parent, child) -> dependencies.add(new AbstractMap.SimpleEntry<>(parent, child)));
+        return dependencies;
+    }
+
+    default List<Map.Entry<String, String>> readDependencies(File file) throws IOException {
+        List<Map.Entry<String, String>> dependencies = new ArrayList<>();
+        readDependencies(file, (parent, child) -> dependencies.add(new AbstractMap.SimpleEntry<>(parent, child)));
+        return dependencies;
+    }
 }
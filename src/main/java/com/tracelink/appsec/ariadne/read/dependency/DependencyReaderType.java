@@ -17,7 +17,7 @@ OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
 package com.tracelink.appsec.ariadne.read.dependency;
 
 public enum DependencyReaderType {
-    MAVEN_TREE("mvn-tree"), POM_EXPLORER("pom-explorer");
+    MAVEN_TREE("mvn-tree"), POM_EXPLORER("pom-explorer"), SNAPSHOT("snapshot"), POM("pom");
 
     private DependencyReaderType(String name) {
         this.name = name;
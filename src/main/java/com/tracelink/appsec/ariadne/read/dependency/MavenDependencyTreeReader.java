@@ -16,95 +16,77 @@ OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
  */
 package com.tracelink.appsec.ariadne.read.dependency;
 
-import java.io.BufferedReader;
+import com.tracelink.appsec.ariadne.read.ArtifactNames;
+import com.tracelink.appsec.ariadne.read.MappedFileReader;
+
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 public class MavenDependencyTreeReader implements DependencyReader {
 
     private File[] files;
 
-    private Pattern directDepPattern = Pattern.compile("[+\\\\]- .*");
-
-    private Pattern transitiveDepPattern = Pattern.compile("(\\| {2}| {3}).*");
-
     public MavenDependencyTreeReader(String path) throws FileNotFoundException {
         File file = new File(path);
         if (!file.exists()) {
             throw new FileNotFoundException("Please provide a valid path to the dependency tree(s).");
         }
         if (file.isDirectory()) {
+            // Sort so that dependencies are always read in the same order
             files = file.listFiles();
+            Arrays.sort(files);
         } else {
             files = new File[]{file};
         }
     }
 
     @Override
-    public List<Map.Entry<String, String>> readDependencies() throws IOException {
-        List<Map.Entry<String, String>> dependencies = new ArrayList<>();
-
-        for (File file : files) {
-            try (BufferedReader fileReader = new BufferedReader(new FileReader(file))) {
-                List<String> lines = fileReader.lines().collect(Collectors.toList());
-                dependencies.addAll(readMavenTree(lines));
-            }
-        }
-        return dependencies;
+    public List<File> getFiles() {
+        return Arrays.asList(files);
     }
 
-    private List<Map.Entry<String, String>> readMavenTree(List<String> tree) {
-        List<Map.Entry<String, String>> dependencies = new ArrayList<>();
-        String parent = null;
-        List<String> childTree = new ArrayList<>();
+    @Override
+    public void readDependencies(File file, DependencySink sink) throws IOException {
+        // The most recent artifact seen at each depth, the parent of anything one level below it
+        List<String> ancestors = new ArrayList<>();
 
-        for (String line : tree) {
+        new MappedFileReader(file).forEachLine(line -> {
+            if (line.isBlank()) {
+                return;
+            }
+            // Every level of nesting is indented by "|  " or "   "
+            int start = 0;
+            while (line.startsWith("|  ", start) || line.startsWith("   ", start)) {
+                start += 3;
+            }
+            int depth = start / 3;
 
-            if (directDepPattern.matcher(line).matches()) {
-                // Found a direct dependency
-                // Recursively parse child tree, if there are transitive dependency
-                if (childTree.size() > 1) {
-                    dependencies.addAll(readMavenTree(childTree));
+            if (line.startsWith("+- ", start) || line.startsWith("\\- ", start)) {
+                // Found a dependency of the artifact one level up
+                if (depth >= ancestors.size()) {
+                    return;
                 }
-                // Initialize new child tree
-                String child = line.substring(3);
-                childTree = new ArrayList<>();
-                childTree.add(child);
-                // Add direct dependency tuple to master list
-                dependencies.add(new AbstractMap.SimpleEntry<>(parent, formatArtifactName(child)));
-            } else if (transitiveDepPattern.matcher(line).matches()) {
-                // Found a transitive dependency
-                childTree.add(line.substring(3));
+                String child = ArtifactNames.getTreeName(line, start + 3, line.length());
+                sink.accept(ancestors.get(depth), child);
+                setAncestor(ancestors, depth + 1, child);
             } else {
                 // Found a new parent
-                parent = formatArtifactName(line);
+                setAncestor(ancestors, depth, ArtifactNames.getTreeName(line, start, line.length()));
             }
-        }
-
-        if (childTree.size() > 1) {
-            dependencies.addAll(readMavenTree(childTree));
-        }
-        return dependencies;
+        });
     }
 
-    private String formatArtifactName(String artifact) {
-        String[] components = artifact.split(":");
-        String[] updatedComponents = new String[3];
-        for (int i = 0; i < components.length; i++) {
-            if (i == 2 || i > 3) {
-                continue;
-            }
-            int index = i < 2 ? i : i - 1;
-            updatedComponents[index] = components[i];
+    private void setAncestor(List<String> ancestors, int depth, String artifact) {
+        while (ancestors.size() > depth) {
+            ancestors.remove(ancestors.size() - 1);
+        }
+        while (ancestors.size() < depth) {
+            ancestors.add(null);
         }
-        return String.join(":", updatedComponents).trim();
+        ancestors.add(artifact);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,139 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.read.dependency;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+// Parses several files at once on a fixed number of threads. The dependencies of each file are buffered and handed
+// over on the calling thread in file order, so the result does not depend on which file finishes first.
+public class ParallelDependencyReader implements DependencyReader {
+    // Number of slowest files listed in the timing summary
+    private static final int SLOWEST_FILES = 5;
+
+    private DependencyReader reader;
+    private int threads;
+
+    public ParallelDependencyReader(DependencyReader reader, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive - " + threads);
+        }
+        this.reader = reader;
+        this.threads = threads;
+    }
+
+    @Override
+    public List<File> getFiles() {
+        return reader.getFiles();
+    }
+
+    @Override
+    public void readDependencies(File file, DependencySink sink) throws IOException {
+        reader.readDependencies(file, sink);
+    }
+
+    @Override
+    public void readDependencies(List<File> files, Function<File, DependencySink> sinks) throws IOException {
+        if (files.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<FileResult> results = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // Only keep a few files ahead of the one being handed over, so buffered dependencies stay bounded
+            int window = 2 * threads;
+            Deque<Future<FileResult>> pending = new ArrayDeque<>();
+            int next = 0;
+            while (next < files.size() || !pending.isEmpty()) {
+                while (next < files.size() && pending.size() < window) {
+                    File file = files.get(next++);
+                    pending.add(executor.submit(() -> readFile(file)));
+                }
+                FileResult result = await(pending.poll());
+                DependencySink sink = sinks.apply(result.file);
+                for (int i = 0; i < result.dependencies.size(); i += 2) {
+                    sink.accept(result.dependencies.get(i), result.dependencies.get(i + 1));
+                }
+                result.dependencies = null;
+                results.add(result);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        printTimings(results, (System.nanoTime() - start) / 1000000);
+    }
+
+    private FileResult readFile(File file) throws IOException {
+        FileResult result = new FileResult(file);
+        long start = System.nanoTime();
+        reader.readDependencies(file, (parent, child) -> {
+            result.dependencies.add(parent);
+            result.dependencies.add(child);
+        });
+        result.count = result.dependencies.size() / 2;
+        result.millis = (System.nanoTime() - start) / 1000000;
+        return result;
+    }
+
+    private FileResult await(Future<FileResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading dependencies", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void printTimings(List<FileResult> results, long millis) {
+        long count = results.stream().mapToLong(r -> r.count).sum();
+        System.out.println(String.format("* Dependency Files: %d file(s), %d dependencies in %d ms on %d thread(s)",
+                results.size(), count, millis, threads));
+        results.sort(Comparator.comparingLong((FileResult r) -> r.millis).reversed());
+        for (FileResult result : results.subList(0, Math.min(SLOWEST_FILES, results.size()))) {
+            System.out.println(String.format("*   %s: %d dependencies, %d KB in %d ms", result.file.getName(),
+                    result.count, (result.file.length() + 1023) / 1024, result.millis));
+        }
+    }
+
+    private static class FileResult {
+        private File file;
+        // Parent and child of every dependency, one after the other
+        private List<String> dependencies = new ArrayList<>();
+        private long count;
+        private long millis;
+
+        FileResult(File file) {
+            this.file = file;
+        }
+    }
+}
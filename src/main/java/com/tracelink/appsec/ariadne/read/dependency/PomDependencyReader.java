@@ -0,0 +1,491 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.read.dependency;
+
+import com.tracelink.appsec.ariadne.read.pom.Pom;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Resolves the dependencies of Maven projects straight from their pom.xml files and a local repository, without running
+// Maven. POMs inherit from their parents, found next to the project or in the repository, and take missing versions and
+// scopes from their dependencyManagement, including imported BOMs. Transitive dependencies follow Maven's scope rules,
+// optional flags and exclusions, and when an artifact is reached more than once the nearest one wins, so the edges are
+// those of dependency:tree. Parsed POMs are kept across projects, which mostly share the same libraries. Profiles are
+// never activated.
+public class PomDependencyReader implements DependencyReader {
+    private static final String POM_FILE = "pom.xml";
+    private static final Pattern RANGE = Pattern.compile("([\\[(])([^\\[\\]()]*)([\\])])");
+    // Bounds parents that refer to each other
+    private static final int MAX_PARENTS = 64;
+
+    private File path;
+    private File repository;
+    private Map<File, Pom> poms = new ConcurrentHashMap<>();
+    private Map<File, Model> models = new ConcurrentHashMap<>();
+    // Artifacts already reported as missing, each is only reported once
+    private Set<String> missing = ConcurrentHashMap.newKeySet();
+
+    public PomDependencyReader(String path, String repository) throws FileNotFoundException {
+        this.path = new File(path);
+        if (!this.path.exists()) {
+            throw new FileNotFoundException("Please provide a valid path to the project(s).");
+        }
+        this.repository = new File(repository);
+        if (!this.repository.isDirectory()) {
+            throw new FileNotFoundException("Please provide a valid path to the local Maven repository.");
+        }
+    }
+
+    public static String getDefaultRepository() {
+        return new File(System.getProperty("user.home"), ".m2/repository").getPath();
+    }
+
+    @Override
+    public List<File> getFiles() {
+        List<File> files = new ArrayList<>();
+        if (path.isFile()) {
+            files.add(path);
+        } else {
+            findProjects(path, files);
+        }
+        return files;
+    }
+
+    // Every directory with a POM is a project, its modules are found through the POM rather than by searching below it
+    private static void findProjects(File dir, List<File> files) {
+        File pom = new File(dir, POM_FILE);
+        if (pom.isFile()) {
+            files.add(pom);
+            return;
+        }
+        File[] children = dir.listFiles(File::isDirectory);
+        if (children == null) {
+            return;
+        }
+        // Sort so that dependencies are always read in the same order
+        Arrays.sort(children);
+        for (File child : children) {
+            findProjects(child, files);
+        }
+    }
+
+    @Override
+    public void readDependencies(File file, DependencySink sink) throws IOException {
+        // The modules of the project, which its other modules depend on rather than on the repository
+        Map<String, File> reactor = new LinkedHashMap<>();
+        findModules(file.getCanonicalFile(), reactor);
+        for (File module : reactor.values()) {
+            resolve(loadModel(module, new HashSet<>()), reactor, sink);
+        }
+    }
+
+    private void findModules(File file, Map<String, File> reactor) throws IOException {
+        if (reactor.containsValue(file)) {
+            return;
+        }
+        Model model = loadModel(file, new HashSet<>());
+        reactor.put(model.getName(), file);
+        for (String module : model.modules) {
+            File moduleFile = new File(file.getParentFile(), module);
+            if (moduleFile.isDirectory()) {
+                moduleFile = new File(moduleFile, POM_FILE);
+            }
+            if (moduleFile.isFile()) {
+                findModules(moduleFile.getCanonicalFile(), reactor);
+            } else {
+                System.out.println("WARNING: Missing module " + module + " in " + file.getPath());
+            }
+        }
+    }
+
+    // Walks the dependencies breadth first, so the first time an artifact is reached is also the nearest
+    private void resolve(Model root, Map<String, File> reactor, DependencySink sink) {
+        Set<String> selected = new HashSet<>();
+        selected.add(root.groupId + ":" + root.artifactId);
+        Deque<Node> queue = new ArrayDeque<>();
+        queue.add(new Node(root, root.getName(), null, Collections.emptyList()));
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            boolean direct = node.scope == null;
+            for (Pom.Dependency declared : node.model.dependencies) {
+                Pom.Dependency dependency = declared;
+                if (!direct) {
+                    if (declared.isOptional()) {
+                        continue;
+                    }
+                    // The project manages the versions and scopes of its transitive dependencies too
+                    Pom.Dependency managed = root.managedDependencies.get(declared.getKey());
+                    if (managed != null) {
+                        dependency = declared.manage(managed, true);
+                    }
+                }
+                String scope = getScope(node.scope, dependency.getScope() == null ? "compile" : dependency.getScope());
+                if (scope == null || isExcluded(node.exclusions, dependency)
+                        || !selected.add(dependency.getGroupId() + ":" + dependency.getArtifactId())) {
+                    continue;
+                }
+                String version = resolveVersion(dependency);
+                if (version == null) {
+                    continue;
+                }
+                String name = String.join(":", dependency.getGroupId(), dependency.getArtifactId(), version);
+                sink.accept(node.name, name);
+                // System dependencies point at a file and have no POM to follow
+                Model model = scope.equals("system") ? null : findModel(name, reactor);
+                if (model != null) {
+                    List<String> exclusions = new ArrayList<>(node.exclusions);
+                    exclusions.addAll(dependency.getExclusions());
+                    queue.add(new Node(model, name, scope, exclusions));
+                }
+            }
+        }
+    }
+
+    // The scope of a dependency reached through a dependency with the given scope, null if it is left out
+    private static String getScope(String parentScope, String scope) {
+        if (parentScope == null) {
+            // Every direct dependency is part of the tree
+            return scope.equals("import") ? null : scope;
+        }
+        switch (scope) {
+            case "compile":
+                return parentScope;
+            case "runtime":
+                return parentScope.equals("compile") ? "runtime" : parentScope;
+            default:
+                // Test, provided and system dependencies are not transitive
+                return null;
+        }
+    }
+
+    private static boolean isExcluded(List<String> exclusions, Pom.Dependency dependency) {
+        for (String exclusion : exclusions) {
+            int colon = exclusion.indexOf(':');
+            String groupId = exclusion.substring(0, colon);
+            String artifactId = exclusion.substring(colon + 1);
+            if ((groupId.equals("*") || groupId.equals(dependency.getGroupId()))
+                    && (artifactId.equals("*") || artifactId.equals(dependency.getArtifactId()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // A version range is resolved to the newest version in the repository that it allows
+    private String resolveVersion(Pom.Dependency dependency) {
+        String version = dependency.getVersion();
+        String name = dependency.getGroupId() + ":" + dependency.getArtifactId();
+        if (version == null || version.contains("${")) {
+            if (missing.add(name + ":" + version)) {
+                System.out.println("WARNING: Unresolved version for " + name + ":" + version);
+            }
+            return null;
+        }
+        if (!version.startsWith("[") && !version.startsWith("(")) {
+            return version;
+        }
+        String best = null;
+        File[] versionDirs = getArtifactDir(dependency.getGroupId(), dependency.getArtifactId())
+                .listFiles(File::isDirectory);
+        if (versionDirs != null) {
+            for (File versionDir : versionDirs) {
+                String candidate = versionDir.getName();
+                if (isInRange(candidate, version) && (best == null || compareVersions(candidate, best) > 0)) {
+                    best = candidate;
+                }
+            }
+        }
+        if (best == null && missing.add(name + ":" + version)) {
+            System.out.println("WARNING: No version in range for " + name + ":" + version);
+        }
+        return best;
+    }
+
+    private static boolean isInRange(String version, String ranges) {
+        Matcher matcher = RANGE.matcher(ranges);
+        while (matcher.find()) {
+            String bounds = matcher.group(2);
+            int comma = bounds.indexOf(',');
+            if (comma < 0) {
+                if (compareVersions(version, bounds.trim()) == 0) {
+                    return true;
+                }
+                continue;
+            }
+            String lower = bounds.substring(0, comma).trim();
+            String upper = bounds.substring(comma + 1).trim();
+            int low = lower.isEmpty() ? 1 : compareVersions(version, lower);
+            int high = upper.isEmpty() ? -1 : compareVersions(version, upper);
+            if ((low > 0 || (low == 0 && matcher.group(1).equals("[")))
+                    && (high < 0 || (high == 0 && matcher.group(3).equals("]")))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Compares dotted and dashed versions part by part, numbers by value. A number is newer than a qualifier, so that
+    // 1.0 is newer than 1.0-beta.
+    static int compareVersions(String v1, String v2) {
+        String[] parts1 = v1.split("[.-]");
+        String[] parts2 = v2.split("[.-]");
+        for (int i = 0; i < Math.max(parts1.length, parts2.length); i++) {
+            String part1 = i < parts1.length ? parts1[i] : "0";
+            String part2 = i < parts2.length ? parts2[i] : "0";
+            boolean number1 = isNumber(part1);
+            boolean number2 = isNumber(part2);
+            int result;
+            if (number1 && number2) {
+                part1 = part1.replaceFirst("^0+(?=.)", "");
+                part2 = part2.replaceFirst("^0+(?=.)", "");
+                result = part1.length() != part2.length()
+                        ? Integer.compare(part1.length(), part2.length()) : part1.compareTo(part2);
+            } else if (number1 != number2) {
+                result = number1 ? 1 : -1;
+            } else {
+                result = part1.compareToIgnoreCase(part2);
+            }
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isNumber(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private File getArtifactDir(String groupId, String artifactId) {
+        return new File(repository, groupId.replace('.', '/') + "/" + artifactId);
+    }
+
+    private File getRepositoryPom(String groupId, String artifactId, String version) {
+        return new File(getArtifactDir(groupId, artifactId), version + "/" + artifactId + "-" + version + ".pom");
+    }
+
+    // Null if the POM of the artifact is missing or cannot be read, which is reported once
+    private Model findModel(String name, Map<String, File> reactor) {
+        File file = reactor.get(name);
+        if (file == null) {
+            String[] coordinates = name.split(":");
+            file = getRepositoryPom(coordinates[0], coordinates[1], coordinates[2]);
+        }
+        return findModel(name, file, new HashSet<>());
+    }
+
+    private Model findModel(String name, File file, Set<File> loading) {
+        if (!file.isFile()) {
+            if (missing.add(name)) {
+                System.out.println("WARNING: Missing POM for " + name + " - " + file.getPath());
+            }
+            return null;
+        }
+        try {
+            return loadModel(file, loading);
+        } catch (IOException e) {
+            if (missing.add(name)) {
+                System.out.println("WARNING: Skipping POM for " + name + ". " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    // The loading set holds the POMs being built further up the stack, to stop BOMs that import each other
+    private Model loadModel(File file, Set<File> loading) throws IOException {
+        Model model = models.get(file);
+        if (model == null) {
+            if (!loading.add(file)) {
+                throw new IOException("Cyclic import of " + file.getPath());
+            }
+            try {
+                model = buildModel(file, loading);
+            } finally {
+                loading.remove(file);
+            }
+            Model existing = models.putIfAbsent(file, model);
+            model = existing != null ? existing : model;
+        }
+        return model;
+    }
+
+    private Pom getPom(File file) throws IOException {
+        Pom pom = poms.get(file);
+        if (pom == null) {
+            pom = Pom.parse(file);
+            poms.put(file, pom);
+        }
+        return pom;
+    }
+
+    // Inherits from every parent, then interpolates the result with the properties of the project, as Maven does
+    private Model buildModel(File file, Set<File> loading) throws IOException {
+        Pom pom = getPom(file);
+        List<Pom> chain = new ArrayList<>();
+        chain.add(pom);
+        Map<String, String> properties = new HashMap<>(pom.getProperties());
+        File current = file;
+        Pom child = pom;
+        while (child.hasParent()) {
+            if (chain.size() > MAX_PARENTS) {
+                throw new IOException("Too many parents above " + file.getPath());
+            }
+            String parentName = String.join(":", Pom.interpolate(child.getParentGroupId(), properties),
+                    Pom.interpolate(child.getParentArtifactId(), properties),
+                    Pom.interpolate(child.getParentVersion(), properties));
+            current = findParent(child, current, parentName, loading);
+            if (current == null) {
+                if (missing.add(parentName)) {
+                    System.out.println("WARNING: Missing parent POM " + parentName + " of " + file.getPath());
+                }
+                break;
+            }
+            child = getPom(current);
+            chain.add(child);
+            // The properties of a POM come before those of its parents
+            child.getProperties().forEach(properties::putIfAbsent);
+        }
+
+        // From the top parent down, so that each POM overrides the ones above it
+        properties.clear();
+        Map<String, Pom.Dependency> dependencies = new LinkedHashMap<>();
+        Map<String, Pom.Dependency> managedDependencies = new LinkedHashMap<>();
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            Pom inherited = chain.get(i);
+            properties.putAll(inherited.getProperties());
+            inherited.getDependencies().forEach(d -> dependencies.put(d.getKey(), d));
+            inherited.getManagedDependencies().forEach(d -> managedDependencies.put(d.getKey(), d));
+        }
+        Model model = new Model();
+        pom.putProjectProperties(properties);
+        model.groupId = Pom.interpolate(pom.getInheritedGroupId(), properties);
+        model.artifactId = Pom.interpolate(pom.getArtifactId(), properties);
+        model.version = Pom.interpolate(pom.getInheritedVersion(), properties);
+        model.modules = pom.getModules();
+
+        // Declared entries come before imported ones, and the first import managing an artifact wins
+        List<Pom.Dependency> imports = new ArrayList<>();
+        for (Pom.Dependency managed : managedDependencies.values()) {
+            Pom.Dependency dependency = managed.interpolate(properties);
+            if ("import".equals(dependency.getScope()) && dependency.getType().equals("pom")) {
+                imports.add(dependency);
+            } else {
+                model.managedDependencies.put(dependency.getKey(), dependency);
+            }
+        }
+        for (Pom.Dependency bom : imports) {
+            String name = String.join(":", bom.getGroupId(), bom.getArtifactId(), bom.getVersion());
+            Model imported = findModel(name, getRepositoryPom(bom.getGroupId(), bom.getArtifactId(), bom.getVersion()),
+                    loading);
+            if (imported != null) {
+                imported.managedDependencies.forEach(model.managedDependencies::putIfAbsent);
+            }
+        }
+        for (Pom.Dependency declared : dependencies.values()) {
+            Pom.Dependency dependency = declared.interpolate(properties);
+            Pom.Dependency managed = model.managedDependencies.get(dependency.getKey());
+            if (managed != null) {
+                dependency = dependency.manage(managed, false);
+            }
+            model.dependencies.add(dependency);
+        }
+        return model;
+    }
+
+    // The parent is taken from disk when the POM at its relative path has the declared group id, artifact id and
+    // version, else from the repository
+    private File findParent(Pom pom, File file, String parentName, Set<File> loading) throws IOException {
+        String relativePath = pom.getRelativePath();
+        if (relativePath == null || !relativePath.isEmpty()) {
+            File parentFile = new File(file.getParentFile(), relativePath == null ? "../pom.xml" : relativePath);
+            if (parentFile.isDirectory()) {
+                parentFile = new File(parentFile, POM_FILE);
+            }
+            if (parentFile.isFile()) {
+                parentFile = parentFile.getCanonicalFile();
+                if (!parentFile.equals(file) && parentName.equals(getName(parentFile, loading))) {
+                    return parentFile;
+                }
+            }
+        }
+        String[] coordinates = parentName.split(":");
+        File parentFile = getRepositoryPom(coordinates[0], coordinates[1], coordinates[2]);
+        return parentFile.isFile() ? parentFile : null;
+    }
+
+    // The interpolated coordinates of a POM on disk, or null if it cannot be read or takes part in a cycle
+    private String getName(File file, Set<File> loading) {
+        try {
+            return loadModel(file, loading).getName();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // A POM with everything it inherits and imports, interpolated
+    private static final class Model {
+        private String groupId;
+        private String artifactId;
+        private String version;
+        private List<String> modules;
+        private List<Pom.Dependency> dependencies = new ArrayList<>();
+        private Map<String, Pom.Dependency> managedDependencies = new LinkedHashMap<>();
+
+        String getName() {
+            return String.join(":", groupId, artifactId, version);
+        }
+    }
+
+    private static final class Node {
+        private Model model;
+        private String name;
+        // Null for the project itself
+        private String scope;
+        private List<String> exclusions;
+
+        Node(Model model, String name, String scope, List<String> exclusions) {
+            this.model = model;
+            this.name = name;
+            this.scope = scope;
+            this.exclusions = exclusions;
+        }
+    }
+}
@@ -16,17 +16,14 @@ OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
  */
 package com.tracelink.appsec.ariadne.read.dependency;
 
-import com.tracelink.appsec.ariadne.utils.Utils;
+import com.tracelink.appsec.ariadne.read.ArtifactNames;
+import com.tracelink.appsec.ariadne.read.MappedFileReader;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.AbstractMap;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 public class PomExplorerReader implements DependencyReader {
     private File file;
@@ -39,21 +36,23 @@ public class PomExplorerReader implements DependencyReader {
     }
 
     @Override
-    public List<Map.Entry<String, String>> readDependencies() throws IOException {
-        List<Map.Entry<String, String>> dependencies = new ArrayList<>();
-
-        try (BufferedReader fileReader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = fileReader.readLine()) != null) {
-                String[] components = line.split(",");
-                String parent = components[0];
-                String child = components[2];
-                if (parent.equals("from")) {
-                    continue;
-                }
-                dependencies.add(new AbstractMap.SimpleEntry<>(Utils.getFullName(parent), Utils.getFullName(child)));
+    public List<File> getFiles() {
+        return Collections.singletonList(file);
+    }
+
+    @Override
+    public void readDependencies(File file, DependencySink sink) throws IOException {
+        new MappedFileReader(file).forEachLine(line -> {
+            int parentEnd = line.columnEnd(0);
+            int childStart = line.columnStart(2);
+            if (line.columnStart(0) < 0 || childStart < 0) {
+                throw new IOException("Missing columns in " + file.getPath() + " - " + line);
             }
-        }
-        return dependencies;
+            if (parentEnd == 4 && line.startsWith("from", 0)) {
+                return;
+            }
+            sink.accept(ArtifactNames.getFullName(line, 0, parentEnd),
+                    ArtifactNames.getFullName(line, childStart, line.columnEnd(childStart)));
+        });
     }
 }
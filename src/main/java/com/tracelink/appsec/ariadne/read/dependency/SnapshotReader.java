@@ -0,0 +1,74 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.read.dependency;
+
+import com.tracelink.appsec.ariadne.model.MappedGraph;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+// Opens a dependency graph written by the snapshot writer, without reading any dependency files. It can only be used
+// through the analyzer, which takes the graph as it is.
+public class SnapshotReader implements DependencyReader {
+    private File file;
+    private boolean verify;
+    private List<String> internalIdentifiers = Collections.emptyList();
+
+    public SnapshotReader(String path) throws FileNotFoundException {
+        this(path, true);
+    }
+
+    // Without verification opening takes the same time whatever the size of the snapshot, but a damaged file is only
+    // noticed if it breaks the analysis
+    public SnapshotReader(String path, boolean verify) throws FileNotFoundException {
+        this.verify = verify;
+        file = new File(path);
+        if (!file.exists() || file.isDirectory()) {
+            throw new FileNotFoundException("Please provide a valid path to the dependency snapshot.");
+        }
+    }
+
+    @Override
+    public List<File> getFiles() {
+        return Collections.singletonList(file);
+    }
+
+    // The internal identifiers the snapshot was analyzed with, known once the graph has been read
+    public List<String> getInternalIdentifiers() {
+        return internalIdentifiers;
+    }
+
+    // Maps the snapshot and compares the whole file with its checksum, unless verification was turned off
+    public MappedGraph readGraph() throws IOException {
+        MappedGraph graph = MappedGraph.open(file);
+        if (verify) {
+            graph.verify();
+        }
+        internalIdentifiers = graph.getInternalIdentifiers();
+        return graph;
+    }
+
+    // A snapshot keeps the analyzed graph rather than the edges of the files it was built from, which cannot be
+    // reproduced from it. The analyzer reads it through readGraph instead.
+    @Override
+    public void readDependencies(File file, DependencySink sink) {
+        throw new UnsupportedOperationException("Cannot read dependency edges from a snapshot, only its graph.");
+    }
+}
@@ -0,0 +1,421 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.read.pom;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// The parts of a pom.xml that decide its coordinates and dependencies, as written in the file. Nothing is inherited
+// here, and values are only interpolated on request. Profiles are not applied, only the names of the properties they
+// may set are kept. Build plugins are not read.
+public final class Pom {
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+    private static final Pattern PROPERTY = Pattern.compile("\\$\\{([^}]+)}");
+    // Bounds property references that refer to each other
+    private static final int MAX_SUBSTITUTIONS = 32;
+
+    static {
+        // A POM never needs a DTD, and resolving one could reach out of the repository
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private String groupId;
+    private String artifactId;
+    private String version;
+    private String parentGroupId;
+    private String parentArtifactId;
+    private String parentVersion;
+    private String relativePath;
+    private Map<String, String> properties = new LinkedHashMap<>();
+    private Set<String> profileProperties = new LinkedHashSet<>();
+    private List<String> modules = new ArrayList<>();
+    private List<Dependency> dependencies = new ArrayList<>();
+    private List<Dependency> managedDependencies = new ArrayList<>();
+
+    private Pom() {
+    }
+
+    public static Pom parse(File file) throws IOException {
+        Pom pom = new Pom();
+        try (InputStream in = new FileInputStream(file)) {
+            XMLStreamReader reader;
+            synchronized (FACTORY) {
+                reader = FACTORY.createXMLStreamReader(in);
+            }
+            try {
+                pom.read(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid POM " + file.getPath() + " - " + e.getMessage());
+        }
+        if (pom.artifactId == null) {
+            throw new IOException("Missing artifactId in " + file.getPath());
+        }
+        return pom;
+    }
+
+    // Replaces ${...} references with the given properties. Unknown properties are left as they are.
+    public static String interpolate(String value, Map<String, String> properties) {
+        if (value == null || !value.contains("${")) {
+            return value;
+        }
+        for (int i = 0; i < MAX_SUBSTITUTIONS; i++) {
+            Matcher matcher = PROPERTY.matcher(value);
+            StringBuffer result = new StringBuffer();
+            boolean replaced = false;
+            while (matcher.find()) {
+                String replacement = properties.get(matcher.group(1));
+                replaced |= replacement != null;
+                matcher.appendReplacement(result,
+                        Matcher.quoteReplacement(replacement != null ? replacement : matcher.group()));
+            }
+            matcher.appendTail(result);
+            if (!replaced) {
+                break;
+            }
+            value = result.toString();
+        }
+        return value;
+    }
+
+    public static boolean isInterpolated(String value) {
+        return value != null && !PROPERTY.matcher(value).find();
+    }
+
+    // Sets the project.* and pom.* properties that refer to the coordinates of this POM, with the group id and version
+    // inherited from the parent when the POM leaves them out
+    public void putProjectProperties(Map<String, String> properties) {
+        putProjectProperty(properties, "groupId", getInheritedGroupId());
+        putProjectProperty(properties, "artifactId", artifactId);
+        putProjectProperty(properties, "version", getInheritedVersion());
+        putProjectProperty(properties, "parent.groupId", parentGroupId);
+        putProjectProperty(properties, "parent.artifactId", parentArtifactId);
+        putProjectProperty(properties, "parent.version", parentVersion);
+    }
+
+    private static void putProjectProperty(Map<String, String> properties, String name, String value) {
+        if (value != null) {
+            properties.put("project." + name, value);
+            properties.put("pom." + name, value);
+        } else {
+            properties.remove("project." + name);
+            properties.remove("pom." + name);
+        }
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getInheritedGroupId() {
+        return groupId != null ? groupId : parentGroupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getInheritedVersion() {
+        return version != null ? version : parentVersion;
+    }
+
+    public boolean hasParent() {
+        return parentArtifactId != null;
+    }
+
+    public String getParentGroupId() {
+        return parentGroupId;
+    }
+
+    public String getParentArtifactId() {
+        return parentArtifactId;
+    }
+
+    public String getParentVersion() {
+        return parentVersion;
+    }
+
+    // Null when the parent is looked for in ../pom.xml, empty when it is never looked for on disk
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    public Map<String, String> getProperties() {
+        return Collections.unmodifiableMap(properties);
+    }
+
+    // Names of the properties that a profile may set, whose value is only known to Maven
+    public Set<String> getProfileProperties() {
+        return Collections.unmodifiableSet(profileProperties);
+    }
+
+    public List<String> getModules() {
+        return Collections.unmodifiableList(modules);
+    }
+
+    public List<Dependency> getDependencies() {
+        return Collections.unmodifiableList(dependencies);
+    }
+
+    public List<Dependency> getManagedDependencies() {
+        return Collections.unmodifiableList(managedDependencies);
+    }
+
+    private void read(XMLStreamReader reader) throws XMLStreamException {
+        List<String> path = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        Dependency dependency = null;
+        String[] exclusion = null;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                path.add(reader.getLocalName());
+                text.setLength(0);
+                if (matches(path, "project", "dependencies", "dependency")) {
+                    dependency = new Dependency();
+                    dependencies.add(dependency);
+                } else if (matches(path, "project", "dependencyManagement", "dependencies", "dependency")) {
+                    dependency = new Dependency();
+                    managedDependencies.add(dependency);
+                } else if (dependency != null && endsWith(path, "dependency", "exclusions", "exclusion")) {
+                    exclusion = new String[2];
+                }
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                text.append(reader.getText());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String value = text.toString().trim();
+                String name = path.get(path.size() - 1);
+                if (exclusion != null && endsWith(path, "exclusion", name)) {
+                    if (name.equals("groupId")) {
+                        exclusion[0] = value;
+                    } else if (name.equals("artifactId")) {
+                        exclusion[1] = value;
+                    }
+                } else if (exclusion != null && endsWith(path, "exclusions", "exclusion")) {
+                    dependency.exclusions.add(exclusion[0] + ":" + exclusion[1]);
+                    exclusion = null;
+                } else if (dependency != null && endsWith(path, "dependency", name) && path.size() > 3) {
+                    dependency.set(name, value);
+                } else if (dependency != null && endsWith(path, "dependencies", "dependency")) {
+                    dependency = null;
+                } else {
+                    set(path, name, value);
+                }
+                path.remove(path.size() - 1);
+                text.setLength(0);
+            }
+        }
+    }
+
+    private void set(List<String> path, String name, String value) {
+        if (path.size() == 2) {
+            switch (name) {
+                case "groupId":
+                    groupId = value;
+                    break;
+                case "artifactId":
+                    artifactId = value;
+                    break;
+                case "version":
+                    version = value;
+                    break;
+                default:
+                    break;
+            }
+        } else if (matches(path, "project", "parent", name)) {
+            switch (name) {
+                case "groupId":
+                    parentGroupId = value;
+                    break;
+                case "artifactId":
+                    parentArtifactId = value;
+                    break;
+                case "version":
+                    parentVersion = value;
+                    break;
+                case "relativePath":
+                    relativePath = value;
+                    break;
+                default:
+                    break;
+            }
+        } else if (matches(path, "project", "properties", name)) {
+            properties.put(name, value);
+        } else if (matches(path, "project", "profiles", "profile", "properties", name)) {
+            profileProperties.add(name);
+        } else if (matches(path, "project", "modules", "module")) {
+            modules.add(value);
+        }
+    }
+
+    private static boolean matches(List<String> path, String... names) {
+        return path.size() == names.length && endsWith(path, names);
+    }
+
+    private static boolean endsWith(List<String> path, String... names) {
+        if (path.size() < names.length) {
+            return false;
+        }
+        int offset = path.size() - names.length;
+        for (int i = 0; i < names.length; i++) {
+            if (!path.get(offset + i).equals(names[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static final class Dependency {
+        private String groupId;
+        private String artifactId;
+        private String version;
+        private String type = "jar";
+        private String classifier = "";
+        private String scope;
+        private boolean optional;
+        // "groupId:artifactId", either may be "*"
+        private List<String> exclusions = new ArrayList<>();
+
+        private Dependency() {
+        }
+
+        private Dependency(Dependency other) {
+            groupId = other.groupId;
+            artifactId = other.artifactId;
+            version = other.version;
+            type = other.type;
+            classifier = other.classifier;
+            scope = other.scope;
+            optional = other.optional;
+            exclusions = new ArrayList<>(other.exclusions);
+        }
+
+        // Two dependencies with the same key are the same artifact, whatever their versions
+        public String getKey() {
+            return groupId + ":" + artifactId + ":" + type + ":" + classifier;
+        }
+
+        public String getGroupId() {
+            return groupId;
+        }
+
+        public String getArtifactId() {
+            return artifactId;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getClassifier() {
+            return classifier;
+        }
+
+        // Null when the POM leaves it out
+        public String getScope() {
+            return scope;
+        }
+
+        public boolean isOptional() {
+            return optional;
+        }
+
+        public List<String> getExclusions() {
+            return Collections.unmodifiableList(exclusions);
+        }
+
+        // A copy with every coordinate and the scope interpolated
+        public Dependency interpolate(Map<String, String> properties) {
+            Dependency dependency = new Dependency(this);
+            dependency.groupId = Pom.interpolate(groupId, properties);
+            dependency.artifactId = Pom.interpolate(artifactId, properties);
+            dependency.version = Pom.interpolate(version, properties);
+            dependency.type = Pom.interpolate(type, properties);
+            dependency.classifier = Pom.interpolate(classifier, properties);
+            dependency.scope = Pom.interpolate(scope, properties);
+            return dependency;
+        }
+
+        // A copy with the version and scope of the managed dependency, either only where this one leaves them out or
+        // in place of its own, and with the managed exclusions added
+        public Dependency manage(Dependency managed, boolean override) {
+            Dependency dependency = new Dependency(this);
+            if (managed.version != null && (override || version == null)) {
+                dependency.version = managed.version;
+            }
+            if (managed.scope != null && (override || scope == null)) {
+                dependency.scope = managed.scope;
+            }
+            dependency.exclusions.addAll(managed.exclusions);
+            return dependency;
+        }
+
+        private void set(String name, String value) {
+            switch (name) {
+                case "groupId":
+                    groupId = value;
+                    break;
+                case "artifactId":
+                    artifactId = value;
+                    break;
+                case "version":
+                    version = value;
+                    break;
+                case "type":
+                    type = value;
+                    break;
+                case "classifier":
+                    classifier = value;
+                    break;
+                case "scope":
+                    scope = value;
+                    break;
+                case "optional":
+                    optional = value.equals("true");
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.read.vulnerability;
+
+import com.tracelink.appsec.ariadne.read.ByteLine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Streams the records of an RFC 4180 CSV file. The header is read once to find the requested columns by name, and only
+// the fields of those columns are kept, all others are skipped as they are scanned. Quoted fields may hold commas,
+// line breaks and doubled quotes. Blank lines are skipped.
+class CsvReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private File file;
+    private List<String> columns;
+
+    CsvReader(File file, List<String> columns) {
+        this.file = file;
+        this.columns = columns;
+    }
+
+    void forEachRecord(RecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            Parser parser = new Parser(handler);
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                parser.parse(buffer.array(), buffer.limit());
+                buffer.clear();
+            }
+            parser.finish();
+        }
+    }
+
+    @FunctionalInterface
+    interface RecordHandler {
+        // The fields are only valid until the handler returns
+        void accept(Record record) throws IOException;
+    }
+
+    static final class Record {
+        private ByteLine[] fields;
+        private long number;
+
+        Record(int columnCount) {
+            fields = new ByteLine[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                fields[i] = new ByteLine();
+            }
+        }
+
+        // The field of the requested column at the given position, without its quotes
+        ByteLine get(int column) {
+            return fields[column];
+        }
+
+        // Number of the record in the file, the header is record 1
+        long getNumber() {
+            return number;
+        }
+    }
+
+    private class Parser {
+        private RecordHandler handler;
+        private Record record = new Record(columns.size());
+        // Position in the requested columns of each column of the file, -1 for columns that are skipped
+        private int[] requested;
+        private int lastColumn;
+        private byte[][] values = new byte[columns.size()][];
+        private int[] lengths = new int[columns.size()];
+        private ByteBuffer[] buffers = new ByteBuffer[columns.size()];
+        private List<String> header = new ArrayList<>();
+        private byte[] headerValue = new byte[64];
+        private int headerLength;
+
+        private int column = 0;
+        private boolean fieldStarted = false;
+        private boolean quoted = false;
+        // A quote closed the field, unless another quote follows right after it
+        private boolean quoteClosed = false;
+        private boolean skipLineFeed = false;
+        private long number = 0;
+
+        Parser(RecordHandler handler) {
+            this.handler = handler;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = new byte[64];
+            }
+        }
+
+        void parse(byte[] bytes, int length) throws IOException {
+            for (int i = 0; i < length; i++) {
+                byte b = bytes[i];
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (b == '\n') {
+                        continue;
+                    }
+                }
+                if (quoted) {
+                    if (b == '"') {
+                        quoted = false;
+                        quoteClosed = true;
+                    } else {
+                        append(b);
+                    }
+                    continue;
+                }
+                if (b == '"') {
+                    if (quoteClosed) {
+                        // A doubled quote inside a quoted field
+                        append(b);
+                        quoted = true;
+                        quoteClosed = false;
+                    } else if (!fieldStarted) {
+                        quoted = true;
+                        fieldStarted = true;
+                    } else {
+                        // A stray quote inside an unquoted field is kept as it is
+                        append(b);
+                    }
+                    continue;
+                }
+                quoteClosed = false;
+                if (b == ',') {
+                    endField();
+                } else if (b == '\n' || b == '\r') {
+                    endRecord();
+                    skipLineFeed = b == '\r';
+                } else {
+                    append(b);
+                }
+            }
+        }
+
+        void finish() throws IOException {
+            if (quoted) {
+                throw new IOException("Unterminated quoted field in " + file.getPath() + " - record " + (number + 1));
+            }
+            if (column > 0 || fieldStarted) {
+                endRecord();
+            }
+            if (requested == null) {
+                throw new IOException("Missing header in " + file.getPath());
+            }
+        }
+
+        private void append(byte b) {
+            fieldStarted = true;
+            if (requested == null) {
+                if (headerLength == headerValue.length) {
+                    headerValue = Arrays.copyOf(headerValue, headerLength * 2);
+                }
+                headerValue[headerLength++] = b;
+                return;
+            }
+            int index = column < requested.length ? requested[column] : -1;
+            if (index < 0) {
+                return;
+            }
+            if (lengths[index] == values[index].length) {
+                values[index] = Arrays.copyOf(values[index], lengths[index] * 2);
+                buffers[index] = null;
+            }
+            values[index][lengths[index]++] = b;
+        }
+
+        private void endField() {
+            if (requested == null) {
+                header.add(new String(headerValue, 0, headerLength, StandardCharsets.UTF_8).trim());
+                headerLength = 0;
+            }
+            column++;
+            fieldStarted = false;
+        }
+
+        private void endRecord() throws IOException {
+            boolean blank = column == 0 && !fieldStarted;
+            endField();
+            number++;
+            if (!blank) {
+                if (requested == null) {
+                    readHeader();
+                } else if (column <= lastColumn) {
+                    throw new IOException("Missing columns in " + file.getPath() + " - record " + number);
+                } else {
+                    for (int i = 0; i < values.length; i++) {
+                        if (buffers[i] == null) {
+                            buffers[i] = ByteBuffer.wrap(values[i]);
+                        }
+                        record.fields[i].set(buffers[i], 0, lengths[i]);
+                    }
+                    record.number = number;
+                    handler.accept(record);
+                }
+            }
+            Arrays.fill(lengths, 0);
+            header.clear();
+            column = 0;
+        }
+
+        private void readHeader() throws IOException {
+            // Spreadsheet exports often start with a byte order mark
+            if (header.get(0).startsWith("\uFEFF")) {
+                header.set(0, header.get(0).substring(1));
+            }
+            requested = new int[header.size()];
+            Arrays.fill(requested, -1);
+            lastColumn = 0;
+            for (int i = 0; i < columns.size(); i++) {
+                int index = header.indexOf(columns.get(i));
+                if (index < 0) {
+                    throw new IOException("Missing column '" + columns.get(i) + "' in " + file.getPath());
+                }
+                requested[index] = i;
+                lastColumn = Math.max(lastColumn, index);
+            }
+        }
+    }
+}
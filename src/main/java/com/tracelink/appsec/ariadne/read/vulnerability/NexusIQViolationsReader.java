@@ -16,20 +16,23 @@ OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
  */
 package com.tracelink.appsec.ariadne.read.vulnerability;
 
-import com.tracelink.appsec.ariadne.utils.Utils;
+import com.tracelink.appsec.ariadne.model.StringTable;
+import com.tracelink.appsec.ariadne.read.ArtifactNames;
+import com.tracelink.appsec.ariadne.read.ByteLine;
+import com.tracelink.appsec.ariadne.utils.IntList;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.AbstractMap;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 public class NexusIQViolationsReader implements VulnerabilityReader {
+    static final String COMPONENT_COLUMN = "Component Name";
+
     private File file;
 
     public NexusIQViolationsReader(String path) throws FileNotFoundException {
@@ -41,26 +44,42 @@ public class NexusIQViolationsReader implements VulnerabilityReader {
 
     @Override
     public List<Map.Entry<String, Integer>> readVulnerabilities() throws IOException {
-        Map<String, Integer> vulnerabilityMap = new HashMap<>();
+        // Violations are counted per component id, so repeated components only cost a table lookup
+        StringTable components = new StringTable();
+        IntList counts = new IntList();
 
-        try (BufferedReader fileReader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = fileReader.readLine()) != null) {
-                if (line.contains("Component Name")) {
-                    continue;
-                }
-                String fullName = Utils.getFullName(line.split(",")[4]);
-                if (vulnerabilityMap.containsKey(fullName)) {
-                    vulnerabilityMap.put(fullName, vulnerabilityMap.get(fullName) + 1);
-                } else {
-                    vulnerabilityMap.put(fullName, 1);
-                }
+        new CsvReader(file, Collections.singletonList(COMPONENT_COLUMN)).forEachRecord(record -> {
+            ByteLine component = record.get(0);
+            if (isHeader(component)) {
+                // Exports that were concatenated repeat the header row
+                return;
             }
-        }
+            String fullName = ArtifactNames.getFullName(component, 0, component.length());
+            int id = components.intern(fullName);
+            if (id == counts.size()) {
+                counts.add(1);
+            } else {
+                counts.set(id, counts.get(id) + 1);
+            }
+        });
 
         List<Map.Entry<String, Integer>> vulnerabilities = new ArrayList<>();
-        vulnerabilityMap
-                .forEach((String key, Integer value) -> vulnerabilities.add(new AbstractMap.SimpleEntry<>(key, value)));
+        for (int id = 0; id < counts.size(); id++) {
+            vulnerabilities.add(new AbstractMap.SimpleEntry<>(components.get(id), counts.get(id)));
+        }
         return vulnerabilities;
     }
+
+    // Compared like the header itself, without surrounding whitespace
+    private static boolean isHeader(ByteLine component) {
+        int from = 0;
+        int to = component.length();
+        while (from < to && ByteLine.isWhitespace(component.byteAt(from))) {
+            from++;
+        }
+        while (to > from && ByteLine.isWhitespace(component.byteAt(to - 1))) {
+            to--;
+        }
+        return to - from == COMPONENT_COLUMN.length() && component.startsWith(COMPONENT_COLUMN, from);
+    }
 }
@@ -0,0 +1,113 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.utils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Immutable bit set that only stores the non-zero 64 bit words. Unions return one of the inputs when nothing changes,
+// so sets flowing through a graph are shared instead of copied.
+public class CompressedBitSet {
+    public static final CompressedBitSet EMPTY = new CompressedBitSet(new int[0], new long[0]);
+
+    private int[] indexes;
+    private long[] words;
+
+    private CompressedBitSet(int[] indexes, long[] words) {
+        this.indexes = indexes;
+        this.words = words;
+    }
+
+    public static CompressedBitSet of(int bit) {
+        return new CompressedBitSet(new int[]{bit >>> 6}, new long[]{1L << bit});
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        return cardinality;
+    }
+
+    public boolean get(int bit) {
+        int index = Arrays.binarySearch(indexes, bit >>> 6);
+        return index >= 0 && (words[index] & (1L << bit)) != 0;
+    }
+
+    public CompressedBitSet or(CompressedBitSet other) {
+        if (other == this || other.isEmpty() || containsAll(other)) {
+            return this;
+        }
+        if (isEmpty() || other.containsAll(this)) {
+            return other;
+        }
+        int[] mergedIndexes = new int[indexes.length + other.indexes.length];
+        long[] mergedWords = new long[mergedIndexes.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < indexes.length || j < other.indexes.length) {
+            if (j == other.indexes.length || (i < indexes.length && indexes[i] < other.indexes[j])) {
+                mergedIndexes[size] = indexes[i];
+                mergedWords[size++] = words[i++];
+            } else if (i == indexes.length || other.indexes[j] < indexes[i]) {
+                mergedIndexes[size] = other.indexes[j];
+                mergedWords[size++] = other.words[j++];
+            } else {
+                mergedIndexes[size] = indexes[i];
+                mergedWords[size++] = words[i++] | other.words[j++];
+            }
+        }
+        return new CompressedBitSet(Arrays.copyOf(mergedIndexes, size),
+                Arrays.copyOf(mergedWords, size));
+    }
+
+    public boolean containsAll(CompressedBitSet other) {
+        int i = 0;
+        for (int j = 0; j < other.indexes.length; j++) {
+            while (i < indexes.length && indexes[i] < other.indexes[j]) {
+                i++;
+            }
+            if (i == indexes.length || indexes[i] != other.indexes[j]
+                    || (other.words[j] & ~words[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                action.accept((indexes[i] << 6) + bit);
+                word &= word - 1;
+            }
+        }
+    }
+
+    public long getMemoryUsage() {
+        // Object headers and array headers, plus the payload of both arrays
+        return 16 + 2 * 16 + 4L * indexes.length + 8L * words.length;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Checks whether a name contains any of the internal identifiers. The identifiers are compiled into an Aho-Corasick
+// automaton, so a name is classified in one pass no matter how many identifiers there are.
+public class IdentifierMatcher {
+    private static final int MATCHED = -1;
+
+    private Map<Character, Integer> alphabet = new HashMap<>();
+    private int[] asciiAlphabet = new int[128];
+    private int alphabetSize;
+    // Transitions of every state for every symbol, symbol 0 stands for characters outside of all identifiers
+    private int[] transitions;
+    private boolean[] accepting;
+    // State reached after reading a group ID and its colon, or MATCHED
+    private Map<String, Integer> groupStates = new ConcurrentHashMap<>();
+
+    public IdentifierMatcher(Collection<String> identifiers) {
+        alphabetSize = 1;
+        for (String identifier : identifiers) {
+            for (int i = 0; i < identifier.length(); i++) {
+                char c = identifier.charAt(i);
+                if (symbol(c) == 0) {
+                    if (c < asciiAlphabet.length) {
+                        asciiAlphabet[c] = alphabetSize++;
+                    } else {
+                        alphabet.put(c, alphabetSize++);
+                    }
+                }
+            }
+        }
+
+        // Build the trie, state 0 is the root
+        IntList trie = new IntList();
+        List<Boolean> ends = new ArrayList<>();
+        addState(trie, ends);
+        for (String identifier : identifiers) {
+            int state = 0;
+            for (int i = 0; i < identifier.length(); i++) {
+                int index = state * alphabetSize + symbol(identifier.charAt(i));
+                if (trie.get(index) == 0) {
+                    trie.set(index, addState(trie, ends));
+                }
+                state = trie.get(index);
+            }
+            ends.set(state, true);
+        }
+
+        // Turn the trie into a complete automaton, following failure links breadth first
+        int stateCount = ends.size();
+        transitions = trie.toArray();
+        accepting = new boolean[stateCount];
+        int[] failure = new int[stateCount];
+        int[] queue = new int[stateCount];
+        int head = 0;
+        int tail = 0;
+        accepting[0] = ends.get(0);
+        for (int s = 0; s < alphabetSize; s++) {
+            int next = transitions[s];
+            if (next != 0) {
+                queue[tail++] = next;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            accepting[state] = ends.get(state) || accepting[failure[state]];
+            for (int s = 0; s < alphabetSize; s++) {
+                int index = state * alphabetSize + s;
+                int next = transitions[index];
+                if (next != 0) {
+                    failure[next] = transitions[failure[state] * alphabetSize + s];
+                    queue[tail++] = next;
+                } else {
+                    transitions[index] = transitions[failure[state] * alphabetSize + s];
+                }
+            }
+        }
+    }
+
+    // Returns true if any identifier occurs in the text
+    public boolean matches(String text) {
+        return run(0, text, 0, text.length()) == MATCHED;
+    }
+
+    // Same as matches, for "groupId:artifactId" names. Artifacts of the same group share the work for the group ID.
+    public boolean matchesArtifact(String artifactName) {
+        int colon = artifactName.indexOf(':');
+        if (colon < 0) {
+            return matches(artifactName);
+        }
+        String groupId = artifactName.substring(0, colon);
+        Integer state = groupStates.get(groupId);
+        if (state == null) {
+            state = run(0, artifactName, 0, colon + 1);
+            groupStates.put(groupId, state);
+        }
+        return state == MATCHED || run(state, artifactName, colon + 1, artifactName.length()) == MATCHED;
+    }
+
+    private int run(int state, String text, int from, int to) {
+        if (accepting[state]) {
+            return MATCHED;
+        }
+        for (int i = from; i < to; i++) {
+            state = transitions[state * alphabetSize + symbol(text.charAt(i))];
+            if (accepting[state]) {
+                return MATCHED;
+            }
+        }
+        return state;
+    }
+
+    private int symbol(char c) {
+        if (c < asciiAlphabet.length) {
+            return asciiAlphabet[c];
+        }
+        Integer symbol = alphabet.get(c);
+        return symbol == null ? 0 : symbol;
+    }
+
+    private int addState(IntList trie, List<Boolean> ends) {
+        for (int s = 0; s < alphabetSize; s++) {
+            trie.add(0);
+        }
+        ends.add(false);
+        return ends.size() - 1;
+    }
+}
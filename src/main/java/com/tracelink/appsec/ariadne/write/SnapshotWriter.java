@@ -0,0 +1,190 @@
+/*
+Copyright 2019 TraceLink, Inc.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.tracelink.appsec.ariadne.write;
+
+import com.tracelink.appsec.ariadne.model.GraphView;
+import com.tracelink.appsec.ariadne.model.MappedGraph;
+import com.tracelink.appsec.ariadne.model.StringTable;
+import com.tracelink.appsec.ariadne.utils.IntList;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Writes the analyzed dependency graph in the snapshot layout described in MappedGraph, which later runs use in place
+// instead of reading the dependency files again
+public class SnapshotWriter {
+    private String path;
+
+    public SnapshotWriter(String path) {
+        this.path = path;
+    }
+
+    public void write(GraphView graph, List<String> internalIdentifiers) throws IOException {
+        int artifactCount = graph.size();
+        int slotCount = graph.getSlotCount();
+
+        // Every name, version and identifier goes into the arena once
+        Arena arena = new Arena();
+        int[] identifierOffsets = new int[internalIdentifiers.size()];
+        int[] identifierLengths = new int[internalIdentifiers.size()];
+        for (int i = 0; i < internalIdentifiers.size(); i++) {
+            identifierOffsets[i] = arena.size();
+            identifierLengths[i] = arena.add(internalIdentifiers.get(i));
+        }
+        int[] nameOffsets = new int[artifactCount];
+        int[] nameLengths = new int[artifactCount];
+        for (int id = 0; id < artifactCount; id++) {
+            nameOffsets[id] = arena.size();
+            nameLengths[id] = arena.add(graph.getName(id));
+        }
+        StringTable versions = new StringTable();
+        IntList versionOffsets = new IntList();
+        IntList versionLengths = new IntList();
+        int[] slotVersions = new int[slotCount];
+        for (int slot = 0; slot < slotCount; slot++) {
+            String version = graph.getVersion(slot);
+            int versionId = versions.intern(version);
+            if (versionId == versionOffsets.size()) {
+                versionOffsets.add(arena.size());
+                versionLengths.add(arena.add(version));
+            }
+            slotVersions[slot] = versionId;
+        }
+
+        // The slots of each artifact, in the order they were added
+        int[] artifactSlotOffsets = new int[artifactCount + 1];
+        for (int slot = 0; slot < slotCount; slot++) {
+            artifactSlotOffsets[graph.getNode(slot) + 1]++;
+        }
+        for (int id = 0; id < artifactCount; id++) {
+            artifactSlotOffsets[id + 1] += artifactSlotOffsets[id];
+        }
+        int[] cursor = new int[artifactCount];
+        System.arraycopy(artifactSlotOffsets, 0, cursor, 0, artifactCount);
+        int[] artifactSlots = new int[slotCount];
+        for (int slot = 0; slot < slotCount; slot++) {
+            artifactSlots[cursor[graph.getNode(slot)]++] = slot;
+        }
+
+        int[] childOffsets = new int[slotCount + 1];
+        int[] parentOffsets = new int[slotCount + 1];
+        for (int slot = 0; slot < slotCount; slot++) {
+            childOffsets[slot + 1] = childOffsets[slot] + graph.getChildCount(slot);
+            parentOffsets[slot + 1] = parentOffsets[slot] + graph.getParentCount(slot);
+        }
+
+        // Names are found through an open addressing table at most half full
+        int indexCapacity = 2;
+        while (indexCapacity < 2L * artifactCount) {
+            indexCapacity *= 2;
+        }
+        int[] index = new int[indexCapacity];
+        for (int id = 0; id < artifactCount; id++) {
+            int bucket = MappedGraph.hash(graph.getName(id)) & (indexCapacity - 1);
+            while (index[bucket] != 0) {
+                bucket = (bucket + 1) & (indexCapacity - 1);
+            }
+            index[bucket] = id + 1;
+        }
+
+        long size = MappedGraph.HEADER_SIZE + 8L * identifierOffsets.length + 16L * artifactCount
+                + 4L * (artifactCount + 1) + 4L * slotCount + 12L * slotCount + 8L * (slotCount + 1)
+                + 4L * childOffsets[slotCount] + 4L * parentOffsets[slotCount] + 4L * indexCapacity + arena.size() + 8;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Dependency snapshot would be larger than 2 GB");
+        }
+
+        File file = new File(path);
+        // Write next to the old snapshot and swap it in, so an interrupted run leaves the previous snapshot intact
+        File temp = new File(file.getPath() + ".tmp");
+        try (OutputStream fileOut = new BufferedOutputStream(new FileOutputStream(temp))) {
+            CheckedOutputStream checked = new CheckedOutputStream(fileOut, new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MappedGraph.MAGIC);
+            out.writeInt(MappedGraph.VERSION);
+            out.writeInt(identifierOffsets.length);
+            out.writeInt(artifactCount);
+            out.writeInt(slotCount);
+            out.writeInt(childOffsets[slotCount]);
+            out.writeInt(parentOffsets[slotCount]);
+            out.writeInt(indexCapacity);
+            out.writeInt(arena.size());
+            out.writeInt(0);
+            for (int i = 0; i < identifierOffsets.length; i++) {
+                out.writeInt(identifierOffsets[i]);
+                out.writeInt(identifierLengths[i]);
+            }
+            for (int id = 0; id < artifactCount; id++) {
+                out.writeInt(nameOffsets[id]);
+                out.writeInt(nameLengths[id]);
+                out.writeInt(graph.isInternal(id) ? MappedGraph.FLAG_INTERNAL : 0);
+                out.writeInt(graph.getLatestSlot(id));
+            }
+            writeInts(out, artifactSlotOffsets);
+            writeInts(out, artifactSlots);
+            for (int slot = 0; slot < slotCount; slot++) {
+                out.writeInt(graph.getNode(slot));
+                out.writeInt(versionOffsets.get(slotVersions[slot]));
+                out.writeInt(versionLengths.get(slotVersions[slot]));
+            }
+            writeInts(out, childOffsets);
+            for (int slot = 0; slot < slotCount; slot++) {
+                for (int i = 0; i < graph.getChildCount(slot); i++) {
+                    out.writeInt(graph.getChild(slot, i));
+                }
+            }
+            writeInts(out, parentOffsets);
+            for (int slot = 0; slot < slotCount; slot++) {
+                for (int i = 0; i < graph.getParentCount(slot); i++) {
+                    out.writeInt(graph.getParent(slot, i));
+                }
+            }
+            writeInts(out, index);
+            arena.writeTo(out);
+            out.flush();
+            // The checksum covers everything before it
+            new DataOutputStream(fileOut).writeLong(checked.getChecksum().getValue());
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static class Arena extends ByteArrayOutputStream {
+        // Appends the string and returns its length in bytes
+        int add(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            write(bytes, 0, bytes.length);
+            return bytes.length;
+        }
+    }
+}
@@ -84,7 +84,7 @@ public class StandardCsvWriter implements Writer {
 
             for (Artifact artifact : artifacts) {
                 if (artifact.isVulnerable()) {
-                    String artifactName = Utils.getArtifactName(artifact.getName());
+                    String artifactName = artifact.getArtifactName();
                     if (artifactMap.containsKey(artifactName)) {
                         artifactMap.get(artifactName).add(artifact);
 
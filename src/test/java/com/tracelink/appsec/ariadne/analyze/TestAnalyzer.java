@@ -1,11 +1,13 @@
 package com.tracelink.appsec.ariadne.analyze;
 
 import com.tracelink.appsec.ariadne.model.Artifact;
+import com.tracelink.appsec.ariadne.read.dependency.MavenDependencyTreeReader;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -50,6 +52,20 @@ public class TestAnalyzer {
                         && a.getVersions().size() == 1));
     }
 
+    @Test
+    public void testAnalyzeDependenciesFromReader() throws IOException {
+        analyzer.analyzeDependencies(new MavenDependencyTreeReader("src/test/resources/complex-tree.txt"));
+
+        Collection<Artifact> artifacts = analyzer.getArtifacts();
+        Assert.assertEquals(8, artifacts.size());
+        Assert.assertTrue(artifacts.stream().anyMatch(a ->
+                a.getName().equals("org.third.party:library-h:8.0")
+                        && a.getConnections() == 1));
+        Assert.assertTrue(artifacts.stream().anyMatch(a ->
+                a.getName().equals("com.example:project-b")
+                        && a.getConnections() == 1));
+    }
+
     @Test
     public void testAnalyzeVulnerabilities() {
         List<Map.Entry<String, Integer>> vulnerabilities = new ArrayList<>();
@@ -289,4 +305,27 @@ public class TestAnalyzer {
         Assert.assertTrue(artifacts.stream().anyMatch(a ->
                 a.getName().equals("org.third.party:library-d:4.0")));
     }
+
+    @Test
+    public void testAnalyzeTiersSelfDependency() {
+        List<Map.Entry<String, String>> dependencies = new ArrayList<>();
+        dependencies.add(new AbstractMap.SimpleEntry<>("com.example:project-a:2.0", "com.example:project-a:1.0"));
+        dependencies.add(new AbstractMap.SimpleEntry<>("com.example:project-a:2.0", "org.third.party:library-b:1.0"));
+
+        List<Map.Entry<String, Integer>> vulnerabilities = new ArrayList<>();
+        vulnerabilities.add(new AbstractMap.SimpleEntry<>("org.third.party:library-b:1.0", 1));
+
+        analyzer.analyzeDependencies(dependencies);
+        analyzer.analyzeVulnerabilities(vulnerabilities);
+        analyzer.analyzeTiers();
+
+        // A dependency on an older version of itself is an internal upgrade, but not a cycle
+        Collection<Artifact> artifacts = analyzer.getArtifacts();
+        Assert.assertTrue(artifacts.stream().anyMatch(a ->
+                a.getName().equals("com.example:project-a")
+                        && a.getTier() == 0
+                        && a.getInternalUpgrades().contains("com.example:project-a")
+                        && a.getExternalUpgrades().size() == 1
+                        && a.getExternalUpgrades().containsKey("org.third.party:library-b:1.0")));
+    }
 }
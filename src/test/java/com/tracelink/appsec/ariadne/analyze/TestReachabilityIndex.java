@@ -0,0 +1,116 @@
+package com.tracelink.appsec.ariadne.analyze;
+
+import com.tracelink.appsec.ariadne.model.Artifact;
+import com.tracelink.appsec.ariadne.model.DependencyGraph;
+import com.tracelink.appsec.ariadne.utils.IntList;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestReachabilityIndex {
+
+    private static Artifact getArtifact(DependencyGraph graph, String fullName) {
+        boolean internal = fullName.startsWith("com.example");
+        String name = internal ? fullName.substring(0, fullName.lastIndexOf(':')) : fullName;
+        Artifact artifact = graph.getArtifact(name);
+        if (artifact == null) {
+            artifact = internal ? graph.addInternalArtifact(fullName) : graph.addExternalArtifact(fullName);
+        }
+        return artifact;
+    }
+
+    private static DependencyGraph buildGraph(long seed) {
+        Random random = new Random(seed);
+        DependencyGraph graph = new DependencyGraph();
+        for (int i = 0; i < 60; i++) {
+            String parent = random.nextBoolean()
+                    ? "com.example:project-" + random.nextInt(12) + ":1.0"
+                    : "org.third.party:library-" + random.nextInt(12) + ":1.0";
+            String child = parent.startsWith("org") || random.nextBoolean()
+                    ? "org.third.party:library-" + random.nextInt(12) + ":1.0"
+                    : "com.example:project-" + random.nextInt(12) + ":1.0";
+            Artifact parentArtifact = getArtifact(graph, parent);
+            Artifact childArtifact = getArtifact(graph, child);
+            childArtifact.addParent("1.0", parentArtifact);
+            parentArtifact.addChild("1.0", childArtifact);
+        }
+        for (int i = 0; i < 12; i += 2) {
+            Artifact library = graph.getArtifact("org.third.party:library-" + i + ":1.0");
+            if (library != null) {
+                library.addFindings(1);
+            }
+        }
+        return graph;
+    }
+
+    @Test
+    public void testRootsReachParentsThroughExternals() {
+        DependencyGraph graph = new DependencyGraph();
+        Artifact project = getArtifact(graph, "com.example:project-a:1.0");
+        Artifact direct = getArtifact(graph, "org.third.party:library-b:1.0");
+        Artifact rootC = getArtifact(graph, "org.third.party:library-c:1.0");
+        Artifact rootD = getArtifact(graph, "org.third.party:library-d:1.0");
+        direct.addParent("1.0", project);
+        project.addChild("1.0", direct);
+        for (Artifact root : new Artifact[]{rootC, rootD}) {
+            root.addParent("1.0", direct);
+            direct.addChild("1.0", root);
+        }
+
+        UpgradeGraph upgrades = new UpgradeGraph(graph);
+        StronglyConnectedComponents components = new StronglyConnectedComponents(upgrades);
+        boolean[] internal = {true, false, false, false};
+        IntList roots = new IntList();
+        roots.add(rootC.getId());
+        roots.add(rootD.getId());
+        ReachabilityIndex index = new ReachabilityIndex(upgrades, components, internal, roots, 0, 2);
+
+        Assert.assertEquals(2, index.getRoots(components.getComponent(direct.getId())).cardinality());
+        Assert.assertEquals(2, index.getRoots(components.getComponent(project.getId())).cardinality());
+        Assert.assertEquals(1, index.getRoots(components.getComponent(rootD.getId())).cardinality());
+        Assert.assertEquals(rootD.getId(), index.getRoot(1));
+        Assert.assertTrue(index.getMemoryUsage() > 0);
+    }
+
+    @Test
+    public void testChunkedMatchesSingleIndex() {
+        for (long seed = 0; seed < 50; seed++) {
+            DependencyGraph single = buildGraph(seed);
+            new TierEngine(single).assignTiers();
+            DependencyGraph chunked = buildGraph(seed);
+            new TierEngine(chunked, 1, 1).assignTiers();
+
+            for (int id = 0; id < single.size(); id++) {
+                Artifact expected = single.getArtifact(id);
+                Artifact actual = chunked.getArtifact(id);
+                Assert.assertEquals(expected.getTier(), actual.getTier());
+                if (single.isInternal(id)) {
+                    Assert.assertEquals(expected.getInternalUpgrades(), actual.getInternalUpgrades());
+                    Assert.assertEquals(expected.getExternalUpgrades(), actual.getExternalUpgrades());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testThreadedMatchesSequential() {
+        for (long seed = 0; seed < 50; seed++) {
+            DependencyGraph sequential = buildGraph(seed);
+            new TierEngine(sequential).assignTiers();
+            DependencyGraph threaded = buildGraph(seed);
+            new TierEngine(threaded, 2, 4).assignTiers();
+
+            for (int id = 0; id < sequential.size(); id++) {
+                Artifact expected = sequential.getArtifact(id);
+                Artifact actual = threaded.getArtifact(id);
+                Assert.assertEquals(expected.getTier(), actual.getTier());
+                if (sequential.isInternal(id)) {
+                    Assert.assertEquals(expected.getInternalUpgrades(), actual.getInternalUpgrades());
+                    Assert.assertEquals(expected.getExternalUpgrades(), actual.getExternalUpgrades());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.tracelink.appsec.ariadne.analyze;
+
+import com.tracelink.appsec.ariadne.model.Artifact;
+import com.tracelink.appsec.ariadne.model.DependencyGraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestStronglyConnectedComponents {
+
+    private static void addDependency(DependencyGraph graph, String parent, String child) {
+        Artifact parentArtifact = graph.getArtifact(parent);
+        if (parentArtifact == null) {
+            parentArtifact = graph.addInternalArtifact(parent + ":1.0");
+        }
+        Artifact childArtifact = graph.getArtifact(child);
+        if (childArtifact == null) {
+            childArtifact = graph.addInternalArtifact(child + ":1.0");
+        }
+        childArtifact.addParent("1.0", parentArtifact);
+        parentArtifact.addChild("1.0", childArtifact);
+    }
+
+    private static int component(StronglyConnectedComponents components, DependencyGraph graph, String name) {
+        return components.getComponent(graph.getArtifact(name).getId());
+    }
+
+    @Test
+    public void testFigureEight() {
+        DependencyGraph graph = new DependencyGraph();
+        addDependency(graph, "com.example:project-a", "com.example:project-b");
+        addDependency(graph, "com.example:project-b", "com.example:project-a");
+        addDependency(graph, "com.example:project-b", "com.example:project-c");
+        addDependency(graph, "com.example:project-c", "com.example:project-b");
+        addDependency(graph, "com.example:project-d", "com.example:project-c");
+
+        StronglyConnectedComponents components = new StronglyConnectedComponents(new UpgradeGraph(graph));
+        Assert.assertEquals(2, components.getComponentCount());
+        int cycle = component(components, graph, "com.example:project-a");
+        Assert.assertEquals(cycle, component(components, graph, "com.example:project-b"));
+        Assert.assertEquals(cycle, component(components, graph, "com.example:project-c"));
+        // Parents are completed before their children
+        Assert.assertTrue(component(components, graph, "com.example:project-d") < cycle);
+    }
+
+    @Test
+    public void testOlderVersionDoesNotFormCycle() {
+        DependencyGraph graph = new DependencyGraph();
+        addDependency(graph, "com.example:project-a", "com.example:project-b");
+        Artifact projectB = graph.getArtifact("com.example:project-b");
+        Artifact projectA = graph.getArtifact("com.example:project-a");
+        // Only an old version of project-b depends on project-a
+        projectB.addVersion("0.9");
+        projectA.addParent("1.0", projectB);
+        projectB.addChild("0.9", projectA);
+
+        StronglyConnectedComponents components = new StronglyConnectedComponents(new UpgradeGraph(graph));
+        Assert.assertEquals(2, components.getComponentCount());
+    }
+
+    @Test
+    public void testDeepChain() {
+        DependencyGraph graph = new DependencyGraph();
+        int depth = 100000;
+        for (int i = 0; i < depth; i++) {
+            addDependency(graph, "com.example:project-" + (i + 1), "com.example:project-" + i);
+        }
+        // Close the chain into a single cycle
+        addDependency(graph, "com.example:project-0", "com.example:project-" + depth);
+
+        StronglyConnectedComponents components = new StronglyConnectedComponents(new UpgradeGraph(graph));
+        Assert.assertEquals(1, components.getComponentCount());
+    }
+}
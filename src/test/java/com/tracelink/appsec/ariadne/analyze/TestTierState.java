@@ -0,0 +1,139 @@
+package com.tracelink.appsec.ariadne.analyze;
+
+import com.tracelink.appsec.ariadne.model.Artifact;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class TestTierState {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String randomArtifact(Random random) {
+        return random.nextInt(3) == 0
+                ? "com.example:project-" + random.nextInt(25) + ":" + (1 + random.nextInt(2)) + ".0"
+                : "org.third.party:library-" + random.nextInt(25) + ":1.0";
+    }
+
+    private static List<Map.Entry<String, String>> randomDependencies(Random random) {
+        List<Map.Entry<String, String>> dependencies = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            dependencies.add(new AbstractMap.SimpleEntry<>(randomArtifact(random), randomArtifact(random)));
+        }
+        return dependencies;
+    }
+
+    private static List<Map.Entry<String, Integer>> randomVulnerabilities(Random random,
+            List<Map.Entry<String, String>> dependencies) {
+        List<Map.Entry<String, Integer>> vulnerabilities = new ArrayList<>();
+        for (Map.Entry<String, String> dependency : dependencies) {
+            if (dependency.getValue().startsWith("org") && random.nextInt(6) == 0) {
+                vulnerabilities.add(new AbstractMap.SimpleEntry<>(dependency.getValue(), 1));
+            }
+        }
+        return vulnerabilities;
+    }
+
+    private static Analyzer analyze(List<Map.Entry<String, String>> dependencies,
+            List<Map.Entry<String, Integer>> vulnerabilities, TierState previousState) {
+        Analyzer analyzer = new Analyzer(Collections.singletonList("com.example"));
+        analyzer.analyzeDependencies(dependencies);
+        analyzer.analyzeVulnerabilities(vulnerabilities);
+        analyzer.analyzeTiers(previousState);
+        return analyzer;
+    }
+
+    private static void assertSameTiers(Analyzer expected, Analyzer actual) {
+        List<Artifact> expectedArtifacts = expected.getArtifacts();
+        List<Artifact> actualArtifacts = actual.getArtifacts();
+        Assert.assertEquals(expectedArtifacts.size(), actualArtifacts.size());
+        for (int i = 0; i < expectedArtifacts.size(); i++) {
+            Artifact expectedArtifact = expectedArtifacts.get(i);
+            Artifact actualArtifact = actualArtifacts.get(i);
+            Assert.assertEquals(expectedArtifact.getName(), actualArtifact.getName());
+            Assert.assertEquals(expectedArtifact.getName(), expectedArtifact.getTier(), actualArtifact.getTier());
+            if (expectedArtifact.getTier() >= 0) {
+                Assert.assertEquals(expectedArtifact.getInternalUpgrades(), actualArtifact.getInternalUpgrades());
+                Assert.assertEquals(expectedArtifact.getExternalUpgrades(), actualArtifact.getExternalUpgrades());
+            }
+        }
+    }
+
+    @Test
+    public void testIncrementalMatchesFullAnalysis() throws IOException {
+        for (long seed = 0; seed < 200; seed++) {
+            Random random = new Random(seed);
+            List<Map.Entry<String, String>> dependencies = randomDependencies(random);
+            List<Map.Entry<String, Integer>> vulnerabilities = randomVulnerabilities(random, dependencies);
+            File stateFile = folder.newFile();
+            analyze(dependencies, vulnerabilities, null).getTierState().writeTo(stateFile);
+
+            // Replace an edge and change which libraries are vulnerable
+            List<Map.Entry<String, String>> changed = new ArrayList<>(dependencies);
+            changed.remove(random.nextInt(changed.size()));
+            changed.add(new AbstractMap.SimpleEntry<>(randomArtifact(random), randomArtifact(random)));
+            List<Map.Entry<String, Integer>> changedVulnerabilities = new ArrayList<>(vulnerabilities);
+            if (!changedVulnerabilities.isEmpty() && random.nextBoolean()) {
+                changedVulnerabilities.remove(random.nextInt(changedVulnerabilities.size()));
+            } else {
+                changedVulnerabilities.add(new AbstractMap.SimpleEntry<>("org.third.party:library-"
+                        + random.nextInt(15) + ":1.0", 1));
+            }
+
+            Analyzer full = analyze(changed, changedVulnerabilities, null);
+            Analyzer incremental = analyze(changed, changedVulnerabilities, TierState.readFrom(stateFile));
+            assertSameTiers(full, incremental);
+        }
+    }
+
+    @Test
+    public void testUnchangedInputsRestoreEverything() {
+        Random random = new Random(42);
+        List<Map.Entry<String, String>> dependencies = randomDependencies(random);
+        List<Map.Entry<String, Integer>> vulnerabilities = randomVulnerabilities(random, dependencies);
+        Analyzer full = analyze(dependencies, vulnerabilities, null);
+        Analyzer incremental = analyze(dependencies, vulnerabilities, full.getTierState());
+        assertSameTiers(full, incremental);
+    }
+
+    @Test
+    public void testChangedIdentifiersIgnoreState() {
+        List<Map.Entry<String, String>> dependencies = new ArrayList<>();
+        dependencies.add(new AbstractMap.SimpleEntry<>("com.example:project-a:1.0", "org.third.party:library-b:1.0"));
+        List<Map.Entry<String, Integer>> vulnerabilities = new ArrayList<>();
+        vulnerabilities.add(new AbstractMap.SimpleEntry<>("org.third.party:library-b:1.0", 1));
+        Analyzer other = new Analyzer(Collections.singletonList("org.third.party"));
+        other.analyzeDependencies(dependencies);
+        other.analyzeTiers();
+
+        Analyzer analyzer = analyze(dependencies, vulnerabilities, other.getTierState());
+        Assert.assertEquals(0, analyzer.getArtifacts().get(0).getTier());
+    }
+
+    @Test
+    public void testReadMissingOrCorruptState() throws IOException {
+        Assert.assertNull(TierState.readFrom(new File(folder.getRoot(), "missing.state")));
+        File corrupt = folder.newFile();
+        try (FileWriter writer = new FileWriter(corrupt)) {
+            writer.write("not a tier state");
+        }
+        Assert.assertNull(TierState.readFrom(corrupt));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStateBeforeAnalysis() {
+        new Analyzer(Collections.singletonList("com.example")).getTierState();
+    }
+}
@@ -1,5 +1,7 @@
 package com.tracelink.appsec.ariadne.cli;
 
+import com.tracelink.appsec.ariadne.read.dependency.ParallelDependencyReader;
+import com.tracelink.appsec.ariadne.read.dependency.PomDependencyReader;
 import com.tracelink.appsec.ariadne.read.dependency.PomExplorerReader;
 
 import org.junit.After;
@@ -34,6 +36,80 @@ public class TestAriadneCLI {
         Assert.assertTrue(cli.getDependencyReader() instanceof PomExplorerReader);
     }
 
+    @Test
+    public void testParseArgsPom() {
+        AriadneCLI cli = new AriadneCLI();
+        Assert.assertTrue(cli.parseArgs(new String[]{
+                "-d", "pom", "src/test/resources/pom-resolver/projects",
+                "-m", "src/test/resources/pom-resolver/repository",
+                "-v", "nexus-iq-vios", "src/test/resources/violations.csv",
+                "-w", "csv", "src/test/resources/output/",
+                "-c", "src/test/resources/output/",
+                "-i", "com.example"
+        }));
+
+        // Not wrapped in the file cache
+        Assert.assertTrue(cli.getDependencyReader() instanceof PomDependencyReader);
+    }
+
+    @Test
+    public void testParseArgsReadThreads() {
+        AriadneCLI cli = new AriadneCLI();
+        Assert.assertTrue(cli.parseArgs(new String[]{
+                "-d", "pom-explorer", "src/test/resources/pom-explorer.csv",
+                "-v", "nexus-iq-vios", "src/test/resources/violations.csv",
+                "-w", "csv", "src/test/resources/output/",
+                "-r", "4",
+                "-i", "com.example"
+        }));
+        Assert.assertTrue(cli.getDependencyReader() instanceof ParallelDependencyReader);
+
+        // Tiers can be assigned in parallel while files are read one at a time
+        cli = new AriadneCLI();
+        Assert.assertTrue(cli.parseArgs(new String[]{
+                "-d", "pom-explorer", "src/test/resources/pom-explorer.csv",
+                "-v", "nexus-iq-vios", "src/test/resources/violations.csv",
+                "-w", "csv", "src/test/resources/output/",
+                "-t", "4",
+                "-i", "com.example"
+        }));
+        Assert.assertTrue(cli.getDependencyReader() instanceof PomExplorerReader);
+    }
+
+    @Test
+    public void testParseArgsPomReadThreads() {
+        AriadneCLI cli = new AriadneCLI();
+        Assert.assertTrue(cli.parseArgs(new String[]{
+                "-d", "pom", "src/test/resources/pom-resolver/projects",
+                "-m", "src/test/resources/pom-resolver/repository",
+                "-v", "nexus-iq-vios", "src/test/resources/violations.csv",
+                "-w", "csv", "src/test/resources/output/",
+                "-r", "4",
+                "-i", "com.example"
+        }));
+
+        // Projects share the parsed POMs, so they are not read in parallel
+        Assert.assertTrue(cli.getDependencyReader() instanceof PomDependencyReader);
+    }
+
+    @Test
+    public void testParseArgsNewIncrementalDirectory() {
+        File incremental = new File("src/test/resources/output/incremental");
+        AriadneCLI cli = new AriadneCLI();
+        Assert.assertTrue(cli.parseArgs(new String[]{
+                "-d", "pom-explorer", "src/test/resources/pom-explorer.csv",
+                "-v", "nexus-iq-vios", "src/test/resources/violations.csv",
+                "-w", "csv", "src/test/resources/output/",
+                "-n", incremental.getPath(),
+                "-c", "src/test/resources/output/",
+                "-i", "com.example"
+        }));
+
+        // Created even though the dependency cache is kept elsewhere
+        Assert.assertTrue(incremental.isDirectory());
+        incremental.delete();
+    }
+
     @Test()
     public void testParseArgsBadType() {
         AriadneCLI cli = new AriadneCLI();
@@ -44,4 +120,28 @@ public class TestAriadneCLI {
                 "-i", "com.example"
         });
     }
+
+    @Test
+    public void testParseArgsBadReadThreads() {
+        AriadneCLI cli = new AriadneCLI();
+        Assert.assertFalse(cli.parseArgs(new String[]{
+                "-d", "pom-explorer", "src/test/resources/pom-explorer.csv",
+                "-v", "nexus-iq-vios", "src/test/resources/violations.csv",
+                "-w", "csv", "src/test/resources/output/",
+                "-r", "0",
+                "-i", "com.example"
+        }));
+    }
+
+    @Test
+    public void testParseArgsBadThreads() {
+        AriadneCLI cli = new AriadneCLI();
+        Assert.assertFalse(cli.parseArgs(new String[]{
+                "-d", "pom-explorer", "src/test/resources/pom-explorer.csv",
+                "-v", "nexus-iq-vios", "src/test/resources/violations.csv",
+                "-w", "csv", "src/test/resources/output/",
+                "-t", "0",
+                "-i", "com.example"
+        }));
+    }
 }
@@ -0,0 +1,190 @@
+package com.tracelink.appsec.ariadne.helpers;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestMavenTreeGenerator {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File projectsDir;
+    private File outputDir;
+
+    @Before
+    public void setUp() throws IOException {
+        projectsDir = folder.newFolder("projects");
+        outputDir = folder.newFolder("output");
+        writePom("a", "<project><artifactId>a</artifactId></project>");
+        writePom("a/module", "<project><artifactId>module</artifactId></project>");
+        writePom("b", "<project><artifactId>b</artifactId></project>");
+    }
+
+    private void writePom(String project, String content) throws IOException {
+        File dir = new File(projectsDir, project);
+        dir.mkdirs();
+        Files.write(new File(dir, "pom.xml").toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Writes a tree for each project instead of running Maven, failing the projects it is told to. It also records how
+    // many builds ran at once, and whether two builds of the same output file overlapped.
+    private class StubGenerator extends MavenTreeGenerator {
+        private Set<String> failing = new HashSet<>();
+        private Set<String> crashing = new HashSet<>();
+        private long sleepMillis = 0;
+        private List<String> built = new ArrayList<>();
+        private AtomicInteger running = new AtomicInteger();
+        private AtomicInteger maxRunning = new AtomicInteger();
+        private Set<String> outputsInUse = ConcurrentHashMap.newKeySet();
+        private volatile boolean overlapped = false;
+
+        StubGenerator(boolean force, String... failing) {
+            this(new HashMap<>(), force, failing);
+        }
+
+        StubGenerator(Map<String, String> specialOptions, boolean force, String... failing) {
+            super(outputDir, 4, "", specialOptions, Collections.singletonList("com.example"), 2, 0, null, force);
+            Collections.addAll(this.failing, failing);
+        }
+
+        @Override
+        BuildResult buildTree(File project) {
+            if (crashing.contains(project.getName())) {
+                throw new IllegalStateException("Crashed - " + project.getName());
+            }
+            synchronized (built) {
+                built.add(project.getName());
+            }
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            if (!outputsInUse.add(getOutputPath(project))) {
+                overlapped = true;
+            }
+            try {
+                Thread.sleep(sleepMillis);
+                Files.write(new File(getOutputPath(project)).toPath(),
+                        ("tree " + project.getName() + "\n").getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException | InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                outputsInUse.remove(getOutputPath(project));
+                running.decrementAndGet();
+            }
+            boolean success = !failing.contains(project.getName());
+            return new BuildResult(project, success ? BuildStatus.SUCCESS : BuildStatus.FAILED, 0);
+        }
+
+        List<String> run() {
+            buildTrees(projectsDir);
+            Collections.sort(built);
+            return built;
+        }
+    }
+
+    @Test
+    public void testUnchangedProjectsSkipped() {
+        Assert.assertEquals(Arrays.asList("a", "b"), new StubGenerator(false).run());
+        StubGenerator generator = new StubGenerator(false);
+        List<MavenTreeGenerator.BuildResult> results = generator.buildTrees(projectsDir);
+        Assert.assertTrue(generator.built.isEmpty());
+        Assert.assertEquals(2, results.size());
+        for (MavenTreeGenerator.BuildResult result : results) {
+            Assert.assertEquals(MavenTreeGenerator.BuildStatus.UNCHANGED, result.getStatus());
+        }
+    }
+
+    @Test
+    public void testChangedModulePom() throws IOException {
+        new StubGenerator(false).run();
+        writePom("a/module", "<project><artifactId>module</artifactId><version>2</version></project>");
+        Assert.assertEquals(Arrays.asList("a"), new StubGenerator(false).run());
+        // The previous tree is replaced rather than appended to
+        Assert.assertEquals(Arrays.asList("tree a"), Files.readAllLines(new File(outputDir, "a.txt").toPath()));
+    }
+
+    @Test
+    public void testChangedOptions() {
+        new StubGenerator(false).run();
+        Map<String, String> specialOptions = new HashMap<>();
+        specialOptions.put("b", "-Dversion=2");
+        Assert.assertEquals(Arrays.asList("b"), new StubGenerator(specialOptions, false).run());
+    }
+
+    @Test
+    public void testMissingOutput() {
+        new StubGenerator(false).run();
+        Assert.assertTrue(new File(outputDir, "b.txt").delete());
+        Assert.assertEquals(Arrays.asList("b"), new StubGenerator(false).run());
+    }
+
+    @Test
+    public void testForce() {
+        new StubGenerator(false).run();
+        Assert.assertEquals(Arrays.asList("a", "b"), new StubGenerator(true).run());
+    }
+
+    @Test
+    public void testFailedGroupNotRecorded() throws IOException {
+        Assert.assertEquals(Arrays.asList("a", "b"), new StubGenerator(false, "b").run());
+        List<String> manifest = Files.readAllLines(new File(outputDir, MavenTreeGenerator.MANIFEST_FILE).toPath());
+        Assert.assertEquals(1, manifest.size());
+        Assert.assertTrue(manifest.get(0).endsWith(" a.txt"));
+        Assert.assertEquals(Arrays.asList("b"), new StubGenerator(false).run());
+    }
+
+    @Test
+    public void testSharedOutputBuiltInOneGroup() throws IOException {
+        // Both projects are named c, so Maven appends both of their trees to c.txt
+        writePom("x/c", "<project><artifactId>c</artifactId></project>");
+        writePom("y/c", "<project><artifactId>c</artifactId></project>");
+        StubGenerator generator = new StubGenerator(false);
+        generator.sleepMillis = 50;
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "c"), generator.run());
+        Assert.assertFalse(generator.overlapped);
+        Assert.assertEquals(Arrays.asList("tree c", "tree c"),
+                Files.readAllLines(new File(outputDir, "c.txt").toPath()));
+    }
+
+    @Test
+    public void testJobsBound() throws IOException {
+        for (int i = 0; i < 6; i++) {
+            writePom("p" + i, "<project><artifactId>p" + i + "</artifactId></project>");
+        }
+        StubGenerator generator = new StubGenerator(false);
+        generator.sleepMillis = 50;
+        Assert.assertEquals(8, generator.run().size());
+        // The stub runs on two jobs, and both are used
+        Assert.assertEquals(2, generator.maxRunning.get());
+    }
+
+    @Test
+    public void testCrashedGroupIsolated() {
+        StubGenerator generator = new StubGenerator(false);
+        generator.crashing.add("a");
+        Map<String, MavenTreeGenerator.BuildStatus> statuses = new HashMap<>();
+        for (MavenTreeGenerator.BuildResult result : generator.buildTrees(projectsDir)) {
+            statuses.put(result.getProject().getName(), result.getStatus());
+        }
+        Assert.assertEquals(MavenTreeGenerator.BuildStatus.FAILED, statuses.get("a"));
+        Assert.assertEquals(MavenTreeGenerator.BuildStatus.SUCCESS, statuses.get("b"));
+        Assert.assertEquals(Arrays.asList("b"), generator.built);
+    }
+}
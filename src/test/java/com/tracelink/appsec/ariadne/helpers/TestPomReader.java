@@ -0,0 +1,116 @@
+package com.tracelink.appsec.ariadne.helpers;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class TestPomReader {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File writePom(String dir, String content) throws IOException {
+        File projectDir = new File(folder.getRoot(), dir);
+        projectDir.mkdirs();
+        Files.write(new File(projectDir, "pom.xml").toPath(),
+                ("<?xml version=\"1.0\"?>\n<project xmlns=\"http://maven.apache.org/POM/4.0.0\">" + content
+                        + "</project>").getBytes(StandardCharsets.UTF_8));
+        return projectDir;
+    }
+
+    @Test
+    public void testInheritedCoordinates() throws IOException {
+        writePom("parent", "<groupId>com.example</groupId><artifactId>parent</artifactId>"
+                + "<version>${revision}</version><properties><revision>1.2</revision></properties>");
+        File child = writePom("parent/child", "<parent><groupId>com.example</groupId>"
+                + "<artifactId>parent</artifactId><version>${revision}</version></parent>"
+                + "<artifactId>child-${project.version}</artifactId>");
+        PomReader.Coordinates coordinates = new PomReader().read(child, "");
+        Assert.assertNotNull(coordinates);
+        Assert.assertEquals("com.example:child-1.2:1.2", coordinates.getName());
+        Assert.assertEquals("com.example:parent:1.2", coordinates.getParentName());
+    }
+
+    @Test
+    public void testUserProperty() throws IOException {
+        File project = writePom("project", "<parent><groupId>com.example</groupId><artifactId>base</artifactId>"
+                + "<version>3</version></parent><artifactId>app</artifactId><version>${revision}</version>"
+                + "<properties><revision>1</revision></properties>");
+        PomReader.Coordinates coordinates = new PomReader().read(project, "-U -Drevision=2");
+        Assert.assertNotNull(coordinates);
+        Assert.assertEquals("com.example:app:2", coordinates.getName());
+        Assert.assertEquals("com.example:base:3", coordinates.getParentName());
+    }
+
+    @Test
+    public void testNoParent() throws IOException {
+        File project = writePom("project", "<groupId>com.example</groupId><artifactId>app</artifactId>"
+                + "<version>1</version>");
+        PomReader.Coordinates coordinates = new PomReader().read(project, "");
+        Assert.assertNotNull(coordinates);
+        Assert.assertFalse(coordinates.hasParent());
+    }
+
+    @Test
+    public void testUnresolvedProperty() throws IOException {
+        // The parent is not on disk, so its properties are unknown
+        File project = writePom("project", "<parent><groupId>com.example</groupId><artifactId>base</artifactId>"
+                + "<version>3</version></parent><artifactId>app</artifactId><version>${revision}</version>");
+        Assert.assertNull(new PomReader().read(project, ""));
+    }
+
+    @Test
+    public void testStaleParent() throws IOException {
+        // The POM at the relative path is another version of the parent, so its properties do not apply
+        writePom("parent", "<groupId>com.example</groupId><artifactId>parent</artifactId><version>1</version>"
+                + "<properties><revision>1</revision></properties>");
+        File child = writePom("parent/child", "<parent><groupId>com.example</groupId>"
+                + "<artifactId>parent</artifactId><version>2</version></parent>"
+                + "<artifactId>child</artifactId><version>${revision}</version>");
+        Assert.assertNull(new PomReader().read(child, ""));
+    }
+
+    @Test
+    public void testCyclicParents() throws IOException {
+        // Each POM names the other as its parent
+        File first = writePom("first", "<parent><groupId>com.example</groupId><artifactId>second</artifactId>"
+                + "<version>1</version><relativePath>../second</relativePath></parent>"
+                + "<artifactId>first</artifactId><properties><revision>1</revision></properties>");
+        writePom("second", "<parent><groupId>com.example</groupId><artifactId>first</artifactId>"
+                + "<version>1</version><relativePath>../first</relativePath></parent>"
+                + "<artifactId>second</artifactId>");
+        PomReader.Coordinates coordinates = new PomReader().read(first, "");
+        Assert.assertNotNull(coordinates);
+        Assert.assertEquals("com.example:first:1", coordinates.getName());
+        Assert.assertEquals("com.example:second:1", coordinates.getParentName());
+    }
+
+    @Test
+    public void testSelfParent() throws IOException {
+        File project = writePom("project", "<parent><groupId>com.example</groupId><artifactId>project</artifactId>"
+                + "<version>1</version><relativePath>.</relativePath></parent><artifactId>project</artifactId>");
+        PomReader.Coordinates coordinates = new PomReader().read(project, "");
+        Assert.assertNotNull(coordinates);
+        Assert.assertEquals("com.example:project:1", coordinates.getParentName());
+    }
+
+    @Test
+    public void testProfileProperty() throws IOException {
+        File project = writePom("project", "<groupId>com.example</groupId><artifactId>app</artifactId>"
+                + "<version>${revision}</version><properties><revision>1</revision></properties>"
+                + "<profiles><profile><id>release</id><properties><revision>2</revision></properties></profile>"
+                + "</profiles>");
+        Assert.assertNull(new PomReader().read(project, ""));
+    }
+
+    @Test
+    public void testInvalidPom() throws IOException {
+        File project = writePom("project", "<artifactId>app");
+        Assert.assertNull(new PomReader().read(project, ""));
+    }
+}
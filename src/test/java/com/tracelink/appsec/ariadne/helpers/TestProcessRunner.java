@@ -0,0 +1,94 @@
+package com.tracelink.appsec.ariadne.helpers;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class TestProcessRunner {
+    private static ProcessBuilder shell(String command) {
+        return new ProcessBuilder("sh", "-c", command);
+    }
+
+    // A process that exited but was not reaped yet is a zombie, it no longer runs
+    private static boolean isRunning(String pid) {
+        try {
+            String stat = new String(Files.readAllBytes(new File("/proc/" + pid + "/stat").toPath()),
+                    StandardCharsets.UTF_8);
+            char state = stat.charAt(stat.lastIndexOf(')') + 2);
+            return state != 'Z' && state != 'X';
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Test
+    public void testOutputKeepsTail() throws IOException, InterruptedException {
+        ProcessRunner.Result result = new ProcessRunner(0, 16)
+                .run(shell("printf 0123456789; printf abcdefghijklmnopqrstuvwxyz"));
+        Assert.assertTrue(result.isSuccess());
+        Assert.assertEquals("klmnopqrstuvwxyz", result.getOutput());
+    }
+
+    @Test
+    public void testErrorsDrained() throws IOException, InterruptedException {
+        // Far more than a pipe holds, the process would block on it if the stream were not read
+        ProcessRunner.Result result = new ProcessRunner(30000, 1024)
+                .run(shell("head -c 1000000 /dev/zero | tr '\\000' x >&2; echo done"));
+        Assert.assertFalse(result.isTimedOut());
+        Assert.assertTrue(result.isSuccess());
+        Assert.assertEquals("done\n", result.getOutput());
+        Assert.assertEquals(1024, result.getErrors().length());
+    }
+
+    @Test
+    public void testExitCode() throws IOException, InterruptedException {
+        ProcessRunner.Result result = new ProcessRunner(0).run(shell("echo failing >&2; exit 3"));
+        Assert.assertEquals(3, result.getExitCode());
+        Assert.assertFalse(result.isTimedOut());
+        Assert.assertFalse(result.isSuccess());
+        Assert.assertEquals("failing\n", result.getErrors());
+    }
+
+    @Test
+    public void testTimeout() throws IOException, InterruptedException {
+        // The shell waits for sleep, which holds the output open until it is killed with its parent
+        ProcessRunner.Result result = new ProcessRunner(200).run(shell("sleep 30; echo finished"));
+        Assert.assertTrue(result.isTimedOut());
+        Assert.assertFalse(result.isSuccess());
+        Assert.assertEquals("", result.getOutput());
+        Assert.assertTrue(result.getMillis() < 10000);
+    }
+
+    @Test
+    public void testTimeoutKillsDescendants() throws IOException, InterruptedException {
+        // Descendants can only be found from Java 9 on, and their state only through /proc
+        boolean hasProcessHandle;
+        try {
+            Class.forName("java.lang.ProcessHandle");
+            hasProcessHandle = true;
+        } catch (ClassNotFoundException e) {
+            hasProcessHandle = false;
+        }
+        Assume.assumeTrue(hasProcessHandle && new File("/proc/self/stat").isFile());
+
+        // The shell starts sleep in the background and waits for it, so sleep outlives a kill of the shell alone
+        ProcessRunner.Result result = new ProcessRunner(500).run(shell("sleep 60 & echo $!; wait"));
+        Assert.assertTrue(result.isTimedOut());
+        String pid = result.getOutput().trim();
+        Assert.assertFalse(pid.isEmpty());
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (isRunning(pid) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            Assert.assertFalse(isRunning(pid));
+        } finally {
+            new ProcessBuilder("kill", "-9", pid).start().waitFor();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.tracelink.appsec.ariadne.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestCoordinate {
+
+    @Test
+    public void testParse() {
+        Coordinate coordinate = Coordinate.parse("org.third.party : library-c : 3.0");
+        Assert.assertEquals("org.third.party:library-c:3.0", coordinate.getFullName());
+        Assert.assertEquals("org.third.party:library-c", coordinate.getArtifactName());
+        Assert.assertEquals("org.third.party", coordinate.getGroupId());
+        Assert.assertEquals("library-c", coordinate.getArtifactId());
+        Assert.assertEquals("3.0", coordinate.getVersion());
+    }
+
+    @Test
+    public void testParseBadFormatting() {
+        Assert.assertEquals("library-c:library-c:3.0", Coordinate.parse("library-c:3.0").getFullName());
+        Assert.assertEquals("org.third.party:library-c:null", Coordinate.parse("org.third.party:library-c")
+                .getFullName());
+        Assert.assertEquals("org.third.party:library-c:jar:3.0",
+                Coordinate.parse("org.third.party:library-c:jar:3.0").getFullName());
+        Assert.assertEquals("org.third.party:library-c:3.0", Coordinate.parse("org.third.party library-c 3.0")
+                .getFullName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseUnknownFormat() {
+        Coordinate.parse("library-c");
+    }
+
+    @Test
+    public void testOfKeepsArtifactIdWithColons() {
+        Coordinate coordinate = Coordinate.of("org.third.party:library-c:jar:3.0");
+        Assert.assertEquals("org.third.party:library-c:jar", coordinate.getArtifactName());
+        Assert.assertEquals("library-c:jar", coordinate.getArtifactId());
+        Assert.assertEquals("3.0", coordinate.getVersion());
+    }
+
+    @Test
+    public void testTableSharesParts() {
+        CoordinateTable table = new CoordinateTable();
+        Coordinate first = table.get(new String("com.example:project-a:1.0"));
+        Coordinate second = table.get(new String("com.example:project-b:1.0"));
+        Assert.assertSame(first, table.get(new String("com.example:project-a:1.0")));
+        Assert.assertSame(first.getGroupId(), second.getGroupId());
+        Assert.assertSame(first.getVersion(), second.getVersion());
+        Assert.assertEquals(2, table.size());
+        Assert.assertEquals(first, Coordinate.of("com.example:project-a:1.0"));
+        Assert.assertEquals(first.hashCode(), Coordinate.of("com.example:project-a:1.0").hashCode());
+    }
+}
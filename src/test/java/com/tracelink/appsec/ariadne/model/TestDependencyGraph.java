@@ -0,0 +1,113 @@
+package com.tracelink.appsec.ariadne.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TestDependencyGraph {
+    @Test
+    public void testInternedLookup() {
+        DependencyGraph graph = new DependencyGraph();
+        Artifact internal = graph.addInternalArtifact("com.example:project-a:1.0");
+        Artifact external = graph.addExternalArtifact("org.third.party:library-b:1.0");
+
+        Assert.assertSame(internal, graph.getArtifact("com.example:project-a"));
+        Assert.assertSame(external, graph.getArtifact("org.third.party:library-b:1.0"));
+        Assert.assertSame(external, graph.getArtifact(external.getId()));
+        Assert.assertNull(graph.getArtifact("com.example:project-a:1.0"));
+        Assert.assertEquals(2, graph.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateArtifact() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.addExternalArtifact("org.third.party:library-b:1.0");
+        graph.addExternalArtifact("org.third.party:library-b:1.0");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForeignArtifact() {
+        DependencyGraph graph = new DependencyGraph();
+        Artifact artifact = graph.addExternalArtifact("org.third.party:library-b:1.0");
+        artifact.addParent("1.0", new InternalArtifact("com.example:project-a:1.0"));
+    }
+
+    @Test
+    public void testDuplicateLinksCollapse() {
+        DependencyGraph graph = new DependencyGraph();
+        Artifact parent = graph.addInternalArtifact("com.example:project-a:1.0");
+        Artifact child = graph.addExternalArtifact("org.third.party:library-b:1.0");
+        for (int i = 0; i < 3; i++) {
+            child.addParent("1.0", parent);
+            parent.addChild("1.0", child);
+        }
+        graph.freeze();
+
+        Assert.assertEquals(1, child.getConnections());
+        Assert.assertEquals(0, parent.getConnections());
+    }
+
+    @Test
+    public void testChildRowsSorted() {
+        DependencyGraph graph = new DependencyGraph();
+        Artifact parent = graph.addInternalArtifact("com.example:project-a:1.0");
+        for (int i = 20; i > 0; i--) {
+            Artifact child = graph.addExternalArtifact("org.third.party:library-" + i + ":1.0");
+            parent.addChild("1.0", child);
+            parent.addChild("1.0", child);
+        }
+        int slot = graph.getLatestSlot(parent.getId());
+        Assert.assertEquals(20, graph.getChildCount(slot));
+        for (int i = 1; i < graph.getChildCount(slot); i++) {
+            Assert.assertTrue(graph.getChild(slot, i - 1) < graph.getChild(slot, i));
+        }
+        Assert.assertTrue(graph.hasChild(slot, "org.third.party:library-7:1.0"));
+        Assert.assertTrue(graph.hasChild(slot, graph.getChild(slot, 19)));
+        Assert.assertFalse(graph.hasChild(slot, parent.getId()));
+        Assert.assertFalse(graph.hasChild(slot, "org.third.party:library-21:1.0"));
+    }
+
+    @Test
+    public void testLinksAfterFreeze() {
+        DependencyGraph graph = new DependencyGraph();
+        Artifact parentA = graph.addInternalArtifact("com.example:project-a:1.0");
+        Artifact parentC = graph.addInternalArtifact("com.example:project-c:1.0");
+        Artifact child = graph.addExternalArtifact("org.third.party:library-b:1.0");
+        child.addParent("1.0", parentA);
+        graph.freeze();
+        Assert.assertEquals(1, child.getConnections());
+
+        // Adding a link after freezing reopens the graph without losing the existing rows
+        child.addParent("1.0", parentC);
+        parentA.addVersion("2.0");
+        Assert.assertEquals(2, child.getConnections());
+        Assert.assertEquals(0, parentA.getConnections());
+    }
+
+    @Test
+    public void testArtifactsSortedByName() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.addExternalArtifact("org.third.party:library-b:1.0");
+        graph.addInternalArtifact("com.example:project-a:1.0");
+        graph.addExternalArtifact("org.third.party:library-a:1.0");
+
+        List<Artifact> artifacts = graph.getArtifacts();
+        Assert.assertEquals("com.example:project-a", artifacts.get(0).getName());
+        Assert.assertEquals("org.third.party:library-a:1.0", artifacts.get(1).getName());
+        Assert.assertEquals("org.third.party:library-b:1.0", artifacts.get(2).getName());
+    }
+
+    @Test
+    public void testStringTable() {
+        StringTable table = new StringTable();
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(i, table.intern("com.example:project-" + i));
+        }
+        Assert.assertEquals(42, table.intern("com.example:project-42"));
+        Assert.assertEquals(999, table.find("com.example:project-999"));
+        Assert.assertEquals(-1, table.find("com.example:project-1000"));
+        Assert.assertEquals("com.example:project-7", table.get(7));
+        Assert.assertEquals(1000, table.size());
+    }
+}
@@ -1,9 +1,8 @@
 package com.tracelink.appsec.ariadne.model;
 
+import org.junit.Assert;
 import org.junit.Test;
 
-import java.util.Collections;
-
 public class TestExternalArtifact {
     @Test(expected=UnsupportedOperationException.class)
     public void testAddVersion() {
@@ -21,7 +20,18 @@ public class TestExternalArtifact {
     }
 
     @Test(expected=UnsupportedOperationException.class)
-    public void testFindCycles() {
-        new ExternalArtifact("org.third.party:library-a:1.0").findCycles(Collections.emptyList());
+    public void testSetTier() {
+        new ExternalArtifact("org.third.party:library-a:1.0").setTier(0);
+    }
+
+    @Test
+    public void testGetArtifactName() {
+        Assert.assertEquals("org.third.party:library-a",
+                new ExternalArtifact("org.third.party:library-a:1.0").getArtifactName());
+    }
+
+    @Test
+    public void testComponentUnassigned() {
+        Assert.assertEquals(-1, new ExternalArtifact("org.third.party:library-a:1.0").getComponent());
     }
 }
@@ -4,9 +4,13 @@ import org.junit.Assert;
 import org.junit.Test;
 
 public class TestInternalArtifact {
-    @Test(expected = UnsupportedOperationException.class)
-    public void testAssignTiers() {
-        new InternalArtifact("com.example:project-a:1.0").assignTiers();
+    @Test
+    public void testExternalUpgradesGroupedByChild() {
+        InternalArtifact artifact = new InternalArtifact("com.example:project-a:1.0");
+        artifact.addExternalUpgrade("org.third.party:library-b:1.0", "org.third.party:library-c:1.0");
+        artifact.addExternalUpgrade("org.third.party:library-b:1.0", "org.third.party:library-d:1.0");
+        Assert.assertEquals(1, artifact.getExternalUpgrades().size());
+        Assert.assertEquals(2, artifact.getExternalUpgrades().get("org.third.party:library-b:1.0").size());
     }
 
     @Test(expected = UnsupportedOperationException.class)
@@ -34,4 +38,31 @@ public class TestInternalArtifact {
         artifact.addChild("2.0", new InternalArtifact("com.example:project-b:1.0"));
         Assert.assertEquals(origConnections, artifact.getVersions().size());
     }
+
+    @Test
+    public void testLatestVersionAfterAdding() {
+        InternalArtifact artifact = new InternalArtifact("com.example:project-a:1.0");
+        Assert.assertEquals("1.0", artifact.getLatestVersion().getVersion());
+        for (int build = 1; build <= 500; build++) {
+            artifact.addVersion("1.2-" + build);
+        }
+        artifact.addVersion("1.1");
+        Assert.assertEquals("1.2-500", artifact.getLatestVersion().getVersion());
+        artifact.addVersion("1.3");
+        Assert.assertEquals("1.3", artifact.getLatestVersion().getVersion());
+        Assert.assertEquals(503, artifact.getVersions().size());
+    }
+
+    @Test
+    public void testEquallyRankedVersionsKeepLinks() {
+        DependencyGraph graph = new DependencyGraph();
+        Artifact artifact = graph.addInternalArtifact("com.example:project-a:1.01");
+        Artifact parent = graph.addInternalArtifact("com.example:project-b:1.0");
+        artifact.addVersion("1.1");
+        artifact.addParent("1.1", parent);
+
+        Assert.assertEquals(1, artifact.getConnections());
+        Assert.assertEquals(2, artifact.getVersions().size());
+        Assert.assertEquals("1.01", ((InternalArtifact) artifact).getLatestVersion().getVersion());
+    }
 }
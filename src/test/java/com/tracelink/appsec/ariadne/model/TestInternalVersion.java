@@ -70,4 +70,40 @@ public class TestInternalVersion {
         v2 = new InternalVersion("1.0-12");
         Assert.assertTrue(v1.compareTo(v2) > 0);
     }
+
+    @Test
+    public void testCompareToLargeNumbers() {
+        InternalVersion v1 = new InternalVersion("20190501123045123456789.1");
+        InternalVersion v2 = new InternalVersion("3.1");
+        Assert.assertTrue(v1.compareTo(v2) < 0);
+        Assert.assertTrue(v2.compareTo(v1) > 0);
+
+        v1 = new InternalVersion("1.0-99999999999999999999");
+        v2 = new InternalVersion("1.0-100000000000000000000");
+        Assert.assertTrue(v1.compareTo(v2) > 0);
+
+        // Leading zeros do not change the number
+        v1 = new InternalVersion("1.01-007");
+        v2 = new InternalVersion("1.1-7");
+        Assert.assertEquals(0, v1.compareTo(v2));
+    }
+
+    @Test
+    public void testCompareToNonNumericBuilds() {
+        // Builds that used to fail to parse or compare inconsistently now have a total order
+        InternalVersion[] versions = {
+                new InternalVersion("1.0-beta-SNAPSHOT"),
+                new InternalVersion("1.0-SNAPSHOT"),
+                new InternalVersion("1.0-12"),
+                new InternalVersion("1.0-rc1"),
+                new InternalVersion("1.0-beta"),
+                new InternalVersion("1.0")
+        };
+        for (int i = 0; i < versions.length; i++) {
+            for (int j = 0; j < versions.length; j++) {
+                Assert.assertEquals(Integer.signum(Integer.compare(i, j)),
+                        Integer.signum(versions[i].compareTo(versions[j])));
+            }
+        }
+    }
 }
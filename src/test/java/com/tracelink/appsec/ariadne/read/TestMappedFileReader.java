@@ -0,0 +1,112 @@
+package com.tracelink.appsec.ariadne.read;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TestMappedFileReader {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLinesMatchBufferedReader() throws IOException {
+        Random random = new Random(7);
+        String[] breaks = {"\n", "\r\n", "\r"};
+        for (int round = 0; round < 20; round++) {
+            StringBuilder content = new StringBuilder();
+            for (int i = random.nextInt(30); i > 0; i--) {
+                for (int j = random.nextInt(12); j > 0; j--) {
+                    content.append((char) ('a' + random.nextInt(26)));
+                }
+                content.append(breaks[random.nextInt(breaks.length)]);
+            }
+            if (random.nextBoolean()) {
+                content.append("last");
+            }
+            File file = folder.newFile();
+            Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+
+            List<String> expected = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    expected.add(line);
+                }
+            }
+            // Small chunks put line breaks, including "\r\n", across chunk boundaries
+            for (int chunkSize = 14; chunkSize <= 40; chunkSize += 13) {
+                List<String> lines = new ArrayList<>();
+                new MappedFileReader(file, chunkSize).forEachLine(line -> lines.add(line.toString()));
+                Assert.assertEquals(expected, lines);
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testLineLongerThanChunk() throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), "a-very-long-line\nshort\n".getBytes(StandardCharsets.UTF_8));
+        new MappedFileReader(file, 8).forEachLine(line -> {
+        });
+    }
+
+    @Test
+    public void testColumns() throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), "a,,c,\nx,y,,,\n".getBytes(StandardCharsets.UTF_8));
+        List<String> columns = new ArrayList<>();
+        new MappedFileReader(file).forEachLine(line -> {
+            for (int column = 0; line.columnStart(column) >= 0; column++) {
+                int start = line.columnStart(column);
+                columns.add(line.toString(start, line.columnEnd(start)));
+            }
+        });
+        // Trailing empty columns are dropped, the same as String.split
+        Assert.assertEquals(Arrays.asList("a", "", "c", "x", "y"), columns);
+    }
+
+    @Test
+    public void testArtifactNames() throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), ("org.third.party : library-c : 3.0\ncom.example:project-a:jar:1.0:compile\n"
+                + "com.example:project-a:jar:1.0:compile\n").getBytes(StandardCharsets.UTF_8));
+        List<String> names = new ArrayList<>();
+        new MappedFileReader(file).forEachLine(line -> {
+            names.add(ArtifactNames.getFullName(line, 0, line.length()));
+            names.add(ArtifactNames.getTreeName(line, 0, line.length()));
+        });
+        Assert.assertEquals("org.third.party:library-c:3.0", names.get(0));
+        Assert.assertEquals("org.third.party : library-c :null", names.get(1));
+        Assert.assertEquals("com.example:project-a:1.0", names.get(3));
+        // Repeated names are the same instance
+        Assert.assertSame(names.get(3), names.get(5));
+    }
+
+    @Test
+    public void testManyDistinctNames() throws IOException {
+        File file = folder.newFile();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append("com.example:project-").append(i).append(":1.0\n");
+        }
+        Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+        List<String> names = new ArrayList<>();
+        new MappedFileReader(file).forEachLine(line -> names.add(ArtifactNames.getFullName(line, 0, line.length())));
+        Assert.assertEquals(1000, names.size());
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals("com.example:project-" + i + ":1.0", names.get(i));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.tracelink.appsec.ariadne.read.dependency;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+public class TestCachingDependencyReader {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static class CountingReader implements DependencyReader {
+        private DependencyReader reader;
+        private int reads = 0;
+
+        CountingReader(DependencyReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public List<File> getFiles() {
+            return reader.getFiles();
+        }
+
+        @Override
+        public void readDependencies(File file, DependencySink sink) throws IOException {
+            reads++;
+            reader.readDependencies(file, sink);
+        }
+    }
+
+    @Test
+    public void testReadsOnlyChangedFiles() throws IOException {
+        File trees = folder.newFolder("trees");
+        File simple = new File(trees, "simple-tree.txt");
+        File complex = new File(trees, "complex-tree.txt");
+        Files.copy(new File("src/test/resources/simple-tree.txt").toPath(), simple.toPath());
+        Files.copy(new File("src/test/resources/complex-tree.txt").toPath(), complex.toPath());
+        String state = new File(folder.getRoot(), "state").getPath();
+
+        CountingReader first = new CountingReader(new MavenDependencyTreeReader(trees.getPath()));
+        Assert.assertEquals(10, new CachingDependencyReader(first, state).readDependencies().size());
+        Assert.assertEquals(2, first.reads);
+
+        CountingReader second = new CountingReader(new MavenDependencyTreeReader(trees.getPath()));
+        CachingDependencyReader cache = new CachingDependencyReader(second, state);
+        Assert.assertEquals(first.readDependencies(), cache.readDependencies());
+        Assert.assertEquals(0, second.reads);
+        Assert.assertEquals(2, cache.getHits());
+        Assert.assertEquals(0, cache.getMisses());
+
+        // Replacing a file with different content is picked up
+        Files.copy(new File("src/test/resources/complex-tree.txt").toPath(), simple.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        CountingReader third = new CountingReader(new MavenDependencyTreeReader(trees.getPath()));
+        cache = new CachingDependencyReader(third, state);
+        Assert.assertEquals(14, cache.readDependencies().size());
+        Assert.assertEquals(1, third.reads);
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+
+        // A removed file drops out of the cache
+        Assert.assertTrue(complex.delete());
+        cache = new CachingDependencyReader(new MavenDependencyTreeReader(trees.getPath()), state);
+        Assert.assertEquals(7, cache.readDependencies().size());
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getRemoved());
+    }
+
+    @Test
+    public void testSkipsRegeneratedFiles() throws IOException {
+        File trees = folder.newFolder("trees");
+        File simple = new File(trees, "simple-tree.txt");
+        Files.copy(new File("src/test/resources/simple-tree.txt").toPath(), simple.toPath());
+        String cache = new File(folder.getRoot(), "cache").getPath();
+
+        CountingReader first = new CountingReader(new MavenDependencyTreeReader(trees.getPath()));
+        Assert.assertEquals(3, new CachingDependencyReader(first, cache).readDependencies().size());
+        Assert.assertEquals(1, first.reads);
+
+        // Writing the same content again only changes the modification time
+        Files.copy(new File("src/test/resources/simple-tree.txt").toPath(), simple.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        Assert.assertTrue(simple.setLastModified(simple.lastModified() + 60000));
+        CountingReader second = new CountingReader(new MavenDependencyTreeReader(trees.getPath()));
+        Assert.assertEquals(3, new CachingDependencyReader(second, cache).readDependencies().size());
+        Assert.assertEquals(0, second.reads);
+    }
+
+    @Test
+    public void testKeepsFileOrder() throws IOException {
+        File trees = folder.newFolder("trees");
+        for (String name : new String[]{"a-tree.txt", "b-tree.txt", "c-tree.txt"}) {
+            Files.copy(new File("src/test/resources/simple-tree.txt").toPath(), new File(trees, name).toPath());
+        }
+        String cache = new File(folder.getRoot(), "cache").getPath();
+        MavenDependencyTreeReader plain = new MavenDependencyTreeReader(trees.getPath());
+        new CachingDependencyReader(plain, cache).readDependencies();
+
+        // Only the middle file is read again, in parallel, between the two cached ones
+        Files.copy(new File("src/test/resources/complex-tree.txt").toPath(), new File(trees, "b-tree.txt").toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        DependencyReader reader = new ParallelDependencyReader(new MavenDependencyTreeReader(trees.getPath()), 2);
+        Assert.assertEquals(plain.readDependencies(), new CachingDependencyReader(reader, cache).readDependencies());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStateDirectory() throws IOException {
+        File file = folder.newFile();
+        new CachingDependencyReader(new PomExplorerReader("src/test/resources/pom-explorer.csv"), file.getPath());
+    }
+}
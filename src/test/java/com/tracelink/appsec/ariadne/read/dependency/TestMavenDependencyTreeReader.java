@@ -1,13 +1,19 @@
 package com.tracelink.appsec.ariadne.read.dependency;
 
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
 public class TestMavenDependencyTreeReader {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
 
     @Test
     public void testReadDependenciesSimpleTree() throws IOException {
@@ -64,4 +70,33 @@ public class TestMavenDependencyTreeReader {
                         && d.getValue().equals("org.third.party:library-h:8.0")
         ));
     }
+
+    @Test
+    public void testReadDependenciesDeepTreesInOneFile() throws IOException {
+        File file = folder.newFile("deep-tree.txt");
+        StringBuilder tree = new StringBuilder("com.example:project-a:jar:1.0\n");
+        String prefix = "";
+        for (int depth = 1; depth <= 12; depth++) {
+            tree.append(prefix).append("\\- org.third.party:library-").append(depth).append(":jar:1.0:compile\n");
+            prefix += "   ";
+        }
+        // Trees appended by separate builds, with a blank line in between
+        tree.append("\ncom.example:project-b:jar:2.0\n");
+        tree.append("+- com.example:project-c:jar:3.0\n");
+        tree.append("\\- org.third.party:library-1:jar:1.0\n");
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(tree.toString());
+        }
+
+        List<Map.Entry<String, String>> dependencies = new MavenDependencyTreeReader(file.getPath()).readDependencies();
+        Assert.assertEquals(14, dependencies.size());
+        Assert.assertTrue(dependencies.stream().anyMatch(d ->
+                d.getKey().equals("org.third.party:library-11:1.0")
+                        && d.getValue().equals("org.third.party:library-12:1.0")
+        ));
+        Assert.assertTrue(dependencies.stream().anyMatch(d ->
+                d.getKey().equals("com.example:project-b:2.0")
+                        && d.getValue().equals("org.third.party:library-1:1.0")
+        ));
+    }
 }
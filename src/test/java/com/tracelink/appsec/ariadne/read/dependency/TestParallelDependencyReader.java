@@ -0,0 +1,48 @@
+package com.tracelink.appsec.ariadne.read.dependency;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+public class TestParallelDependencyReader {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSameOrderAsSequential() throws IOException {
+        File trees = folder.newFolder("trees");
+        String[] sources = {"simple-tree.txt", "complex-tree.txt", "dependency-tree.txt"};
+        for (int i = 0; i < 30; i++) {
+            Files.copy(new File("src/test/resources/" + sources[i % 3]).toPath(),
+                    new File(trees, "tree-" + i + ".txt").toPath());
+        }
+
+        List<Map.Entry<String, String>> expected = new MavenDependencyTreeReader(trees.getPath()).readDependencies();
+        for (int threads = 1; threads <= 4; threads++) {
+            DependencyReader reader = new ParallelDependencyReader(
+                    new MavenDependencyTreeReader(trees.getPath()), threads);
+            Assert.assertEquals(expected, reader.readDependencies());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testFailedFile() throws IOException {
+        File trees = folder.newFolder("trees");
+        Files.copy(new File("src/test/resources/simple-tree.txt").toPath(), new File(trees, "tree.txt").toPath());
+        DependencyReader reader = new ParallelDependencyReader(new MavenDependencyTreeReader(trees.getPath()), 2);
+        Assert.assertTrue(new File(trees, "tree.txt").delete());
+        reader.readDependencies();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThreads() throws IOException {
+        new ParallelDependencyReader(new PomExplorerReader("src/test/resources/pom-explorer.csv"), 0);
+    }
+}
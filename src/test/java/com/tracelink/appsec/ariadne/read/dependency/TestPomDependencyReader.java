@@ -0,0 +1,123 @@
+package com.tracelink.appsec.ariadne.read.dependency;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class TestPomDependencyReader {
+    private static final String PROJECTS = "src/test/resources/pom-resolver/projects";
+    private static final String REPOSITORY = "src/test/resources/pom-resolver/repository";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<Map.Entry<String, String>> edges(String... names) {
+        List<Map.Entry<String, String>> edges = new ArrayList<>();
+        for (int i = 0; i < names.length; i += 2) {
+            edges.add(new AbstractMap.SimpleEntry<>(names[i], names[i + 1]));
+        }
+        return edges;
+    }
+
+    @Test
+    public void testGetFiles() throws FileNotFoundException {
+        DependencyReader reader = new PomDependencyReader(PROJECTS, REPOSITORY);
+        Assert.assertEquals(Collections.singletonList(new File(PROJECTS, "app/pom.xml")), reader.getFiles());
+    }
+
+    @Test
+    public void testReadModule() throws IOException {
+        // Versions come from properties and management of the parents, test dependencies of the project are kept
+        // but their own are only followed in test scope, optional and test dependencies of libraries are left out
+        DependencyReader reader = new PomDependencyReader(PROJECTS, REPOSITORY);
+        Assert.assertEquals(edges(
+                "com.example:core:1.0", "org.third.party:library-a:1.0",
+                "com.example:core:1.0", "org.third.party:library-b:2.0",
+                "com.example:core:1.0", "org.third.party:test-lib:1.0",
+                "org.third.party:library-a:1.0", "org.third.party:library-e:1.0",
+                "org.third.party:library-a:1.0", "org.third.party:library-h:2.0",
+                "org.third.party:library-b:2.0", "org.third.party:library-missing:1.0",
+                "org.third.party:test-lib:1.0", "org.third.party:library-i:1.0"
+        ), reader.readDependencies(new File(PROJECTS, "app/core/pom.xml")));
+    }
+
+    @Test
+    public void testReadProject() throws IOException {
+        // Every module is read, and modules depend on each other rather than on the repository
+        DependencyReader reader = new PomDependencyReader(PROJECTS, REPOSITORY);
+        List<Map.Entry<String, String>> dependencies = reader.readDependencies();
+        List<Map.Entry<String, String>> web = dependencies.subList(7, dependencies.size());
+        Assert.assertEquals(edges(
+                "com.example:web:1.0", "com.example:core:1.0",
+                "com.example:web:1.0", "org.third.party:library-c:3.0",
+                "com.example:web:1.0", "org.third.party:library-d:1.5",
+                "com.example:core:1.0", "org.third.party:library-a:1.0",
+                "com.example:core:1.0", "org.third.party:library-b:2.0",
+                "org.third.party:library-c:3.0", "org.third.party:library-e:1.0",
+                "org.third.party:library-a:1.0", "org.third.party:library-h:2.0",
+                "org.third.party:library-b:2.0", "org.third.party:library-missing:1.0"
+        ), web);
+    }
+
+    @Test
+    public void testSharedPoms() throws IOException {
+        // Reading again from the kept POMs gives the same dependencies
+        DependencyReader reader = new PomDependencyReader(PROJECTS, REPOSITORY);
+        Assert.assertEquals(reader.readDependencies(), reader.readDependencies());
+    }
+
+    @Test
+    public void testStaleParent() throws IOException {
+        // The POM at the default relative path is another version of the parent, so the repository one is used
+        Files.write(new File(folder.getRoot(), "pom.xml").toPath(), ("<project><groupId>org.third.party</groupId>"
+                + "<artifactId>corporate-parent</artifactId><version>0</version><dependencyManagement><dependencies>"
+                + "<dependency><groupId>org.third.party</groupId><artifactId>library-b</artifactId>"
+                + "<version>1.0</version></dependency></dependencies></dependencyManagement></project>")
+                .getBytes(StandardCharsets.UTF_8));
+        File project = folder.newFolder("project");
+        Files.write(new File(project, "pom.xml").toPath(), ("<project><parent><groupId>org.third.party</groupId>"
+                + "<artifactId>corporate-parent</artifactId><version>1</version></parent>"
+                + "<groupId>com.example</groupId><artifactId>lib</artifactId><version>1.0</version><dependencies>"
+                + "<dependency><groupId>org.third.party</groupId><artifactId>library-b</artifactId></dependency>"
+                + "</dependencies></project>").getBytes(StandardCharsets.UTF_8));
+        DependencyReader reader = new PomDependencyReader(project.getPath(), REPOSITORY);
+        Assert.assertEquals(edges(
+                "com.example:lib:1.0", "org.third.party:library-b:2.0",
+                "org.third.party:library-b:2.0", "org.third.party:library-e:2.0",
+                "org.third.party:library-b:2.0", "org.third.party:library-missing:1.0"
+        ), reader.readDependencies(new File(project, "pom.xml")));
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidProject() throws IOException {
+        File project = folder.newFolder("project");
+        Files.write(new File(project, "pom.xml").toPath(), "<project>".getBytes(StandardCharsets.UTF_8));
+        new PomDependencyReader(folder.getRoot().getPath(), REPOSITORY).readDependencies();
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void testMissingRepository() throws IOException {
+        new PomDependencyReader(PROJECTS, new File(folder.getRoot(), "missing").getPath());
+    }
+
+    @Test
+    public void testCompareVersions() {
+        List<String> versions = Arrays.asList("1.10", "1.0-beta", "1.2", "1.0", "1.0.1");
+        versions.sort(PomDependencyReader::compareVersions);
+        Assert.assertEquals(Arrays.asList("1.0-beta", "1.0", "1.0.1", "1.2", "1.10"), versions);
+        Assert.assertEquals(0, PomDependencyReader.compareVersions("1.0", "1.0.0"));
+    }
+}
@@ -0,0 +1,186 @@
+package com.tracelink.appsec.ariadne.read.dependency;
+
+import com.tracelink.appsec.ariadne.analyze.Analyzer;
+import com.tracelink.appsec.ariadne.model.Artifact;
+import com.tracelink.appsec.ariadne.model.GraphView;
+import com.tracelink.appsec.ariadne.write.SnapshotWriter;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class TestSnapshotReader {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String randomArtifact(Random random) {
+        return random.nextInt(3) == 0
+                ? "com.example:project-" + random.nextInt(20) + ":" + (1 + random.nextInt(3)) + ".0"
+                : "org.third.party:library-" + random.nextInt(20) + ":1.0";
+    }
+
+    private static List<Map.Entry<String, Integer>> analyzeAll(Analyzer analyzer, Random random) {
+        List<Map.Entry<String, Integer>> vulnerabilities = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String name = "org.third.party:library-" + i + ":1.0";
+            // A mapped snapshot cannot take artifacts it does not hold
+            if (random.nextInt(4) == 0 && analyzer.getDependencyGraph().getArtifact(name) != null) {
+                vulnerabilities.add(new AbstractMap.SimpleEntry<>(name, 1));
+            }
+        }
+        analyzer.analyzeVulnerabilities(vulnerabilities);
+        analyzer.analyzeTiers();
+        return vulnerabilities;
+    }
+
+    private static void assertSameGraph(GraphView expected, GraphView actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        Assert.assertEquals(expected.getSlotCount(), actual.getSlotCount());
+        for (int id = 0; id < expected.size(); id++) {
+            Assert.assertEquals(expected.getName(id), actual.getName(id));
+            Assert.assertEquals(expected.isInternal(id), actual.isInternal(id));
+            Assert.assertEquals(expected.getLatestSlot(id), actual.getLatestSlot(id));
+        }
+        for (int slot = 0; slot < expected.getSlotCount(); slot++) {
+            Assert.assertEquals(expected.getNode(slot), actual.getNode(slot));
+            Assert.assertEquals(expected.getVersion(slot), actual.getVersion(slot));
+            Assert.assertEquals(expected.getChildCount(slot), actual.getChildCount(slot));
+            for (int i = 0; i < expected.getChildCount(slot); i++) {
+                Assert.assertEquals(expected.getChild(slot, i), actual.getChild(slot, i));
+            }
+            Assert.assertEquals(expected.getParentCount(slot), actual.getParentCount(slot));
+            for (int i = 0; i < expected.getParentCount(slot); i++) {
+                Assert.assertEquals(expected.getParent(slot, i), actual.getParent(slot, i));
+            }
+        }
+    }
+
+    private static void assertSameTiers(Analyzer expected, Analyzer actual) {
+        List<Artifact> expectedArtifacts = expected.getArtifacts();
+        List<Artifact> actualArtifacts = actual.getArtifacts();
+        Assert.assertEquals(expectedArtifacts.size(), actualArtifacts.size());
+        for (int i = 0; i < expectedArtifacts.size(); i++) {
+            Artifact expectedArtifact = expectedArtifacts.get(i);
+            Artifact actualArtifact = actualArtifacts.get(i);
+            Assert.assertEquals(expectedArtifact.getName(), actualArtifact.getName());
+            Assert.assertEquals(expectedArtifact.getArtifactName(), actualArtifact.getArtifactName());
+            Assert.assertEquals(expectedArtifact.getVersions(), actualArtifact.getVersions());
+            Assert.assertEquals(expectedArtifact.getConnections(), actualArtifact.getConnections());
+            Assert.assertEquals(expectedArtifact.getTier(), actualArtifact.getTier());
+            if (expectedArtifact.getTier() >= 0) {
+                Assert.assertEquals(expectedArtifact.getInternalUpgrades(), actualArtifact.getInternalUpgrades());
+                Assert.assertEquals(expectedArtifact.getExternalUpgrades(), actualArtifact.getExternalUpgrades());
+            }
+        }
+    }
+
+    @Test
+    public void testSnapshotMatchesAnalysis() throws IOException {
+        for (long seed = 0; seed < 100; seed++) {
+            Random random = new Random(seed);
+            List<Map.Entry<String, String>> dependencies = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                dependencies.add(new AbstractMap.SimpleEntry<>(randomArtifact(random), randomArtifact(random)));
+            }
+            Analyzer expected = new Analyzer(Collections.singletonList("com.example"));
+            expected.analyzeDependencies(dependencies);
+            File snapshot = folder.newFile();
+            new SnapshotWriter(snapshot.getPath())
+                    .write(expected.getDependencyGraph(), expected.getInternalIdentifiers());
+
+            // Mapped in place
+            Analyzer loaded = new Analyzer(Collections.singletonList("com.example"));
+            loaded.analyzeDependencies(new SnapshotReader(snapshot.getPath()));
+            assertSameGraph(expected.getDependencyGraph(), loaded.getDependencyGraph());
+
+            long vulnerabilitySeed = random.nextLong();
+            analyzeAll(expected, new Random(vulnerabilitySeed));
+            analyzeAll(loaded, new Random(vulnerabilitySeed));
+            assertSameTiers(expected, loaded);
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadDependencies() throws IOException {
+        Analyzer analyzer = new Analyzer(Collections.singletonList("com.example"));
+        analyzer.analyzeDependencies(new MavenDependencyTreeReader("src/test/resources/complex-tree.txt"));
+        File snapshot = folder.newFile();
+        new SnapshotWriter(snapshot.getPath()).write(analyzer.getDependencyGraph(), analyzer.getInternalIdentifiers());
+        // The edges of the original files are not in the snapshot
+        new SnapshotReader(snapshot.getPath()).readDependencies();
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptSnapshot() throws IOException {
+        File snapshot = writeDamagedSnapshot(-1);
+        new SnapshotReader(snapshot.getPath(), false).readGraph().verify();
+    }
+
+    private File writeDamagedSnapshot(long fromEnd) throws IOException {
+        Analyzer analyzer = new Analyzer(Collections.singletonList("com.example"));
+        analyzer.analyzeDependencies(new MavenDependencyTreeReader("src/test/resources/complex-tree.txt"));
+        File snapshot = folder.newFile();
+        new SnapshotWriter(snapshot.getPath()).write(analyzer.getDependencyGraph(), analyzer.getInternalIdentifiers());
+        try (RandomAccessFile file = new RandomAccessFile(snapshot, "rw")) {
+            long position = fromEnd < 0 ? file.length() / 2 : file.length() - fromEnd;
+            file.seek(position);
+            int value = file.read();
+            file.seek(position);
+            file.write(value ^ 1);
+        }
+        return snapshot;
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptSnapshotAnalyzed() throws IOException {
+        File snapshot = writeDamagedSnapshot(-1);
+        Analyzer analyzer = new Analyzer(Collections.singletonList("com.example"));
+        analyzer.analyzeDependencies(new SnapshotReader(snapshot.getPath()));
+    }
+
+    @Test
+    public void testSkipVerify() throws IOException {
+        // The last byte of the arena, just before the checksum, belongs to a name or a version
+        File snapshot = writeDamagedSnapshot(9);
+        Analyzer analyzer = new Analyzer(Collections.singletonList("com.example"));
+        analyzer.analyzeDependencies(new SnapshotReader(snapshot.getPath(), false));
+        analyzer.analyzeTiers();
+        Assert.assertFalse(analyzer.getArtifacts().isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedSnapshot() throws IOException {
+        Analyzer analyzer = new Analyzer(Collections.singletonList("com.example"));
+        analyzer.analyzeDependencies(new MavenDependencyTreeReader("src/test/resources/complex-tree.txt"));
+        File snapshot = folder.newFile();
+        new SnapshotWriter(snapshot.getPath()).write(analyzer.getDependencyGraph(), analyzer.getInternalIdentifiers());
+        try (RandomAccessFile file = new RandomAccessFile(snapshot, "rw")) {
+            file.setLength(file.length() - 4);
+        }
+        new SnapshotReader(snapshot.getPath()).readGraph();
+    }
+
+    @Test
+    public void testFindArtifact() throws IOException {
+        Analyzer analyzer = new Analyzer(Collections.singletonList("com.example"));
+        analyzer.analyzeDependencies(new MavenDependencyTreeReader("src/test/resources/complex-tree.txt"));
+        File snapshot = folder.newFile();
+        new SnapshotWriter(snapshot.getPath()).write(analyzer.getDependencyGraph(), analyzer.getInternalIdentifiers());
+        GraphView graph = new SnapshotReader(snapshot.getPath()).readGraph();
+        for (int id = 0; id < graph.size(); id++) {
+            Assert.assertEquals(id, graph.getArtifact(graph.getName(id)).getId());
+        }
+        Assert.assertNull(graph.getArtifact("org.third.party:missing:1.0"));
+    }
+}
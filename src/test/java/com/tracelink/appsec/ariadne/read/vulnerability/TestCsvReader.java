@@ -0,0 +1,62 @@
+package com.tracelink.appsec.ariadne.read.vulnerability;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TestCsvReader {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private List<String> read(String content, String... columns) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        List<String> fields = new ArrayList<>();
+        new CsvReader(file, Arrays.asList(columns)).forEachRecord(record -> {
+            for (int i = 0; i < columns.length; i++) {
+                fields.add(record.get(i).toString());
+            }
+        });
+        return fields;
+    }
+
+    @Test
+    public void testQuotedFields() throws IOException {
+        Assert.assertEquals(Arrays.asList("a,b", "1", "say \"hi\"", "2", "line\nbreak", "3", "", "4"),
+                read("x,Name,y,Id\n"
+                        + "0,\"a,b\",0,1\n"
+                        + "0,\"say \"\"hi\"\"\",0,2\r\n"
+                        + "0,\"line\nbreak\",0,3\r"
+                        + "\n"
+                        + "0,\"\",0,4", "Name", "Id"));
+    }
+
+    @Test
+    public void testHeaderOrder() throws IOException {
+        Assert.assertEquals(Arrays.asList("2", "1"), read("\uFEFFId,Name\n1,2\n", "Name", "Id"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingColumn() throws IOException {
+        read("Id,Name\n1,2\n", "Component Name");
+    }
+
+    @Test(expected = IOException.class)
+    public void testShortRecord() throws IOException {
+        read("Id,Name\n1\n", "Name");
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnterminatedQuote() throws IOException {
+        read("Id,Name\n1,\"2\n", "Name");
+    }
+}
@@ -41,6 +41,39 @@ public class TestNexusIQViolationsReader {
         ));
     }
 
+    @Test
+    public void testReadQuotedVulnerabilities() throws IOException {
+        VulnerabilityReader reader = new NexusIQViolationsReader("src/test/resources/nexus-iq-violations-quoted.csv");
+        List<Map.Entry<String, Integer>> vulnerabilities = reader.readVulnerabilities();
+
+        Assert.assertEquals(2, vulnerabilities.size());
+        Assert.assertTrue(vulnerabilities.stream().anyMatch(d ->
+                d.getKey().equals("org.third.party:library-b:1.0")
+                        && d.getValue().equals(2)
+        ));
+        Assert.assertTrue(vulnerabilities.stream().anyMatch(d ->
+                d.getKey().equals("library-d:library-d:2.0")
+                        && d.getValue().equals(1)
+        ));
+    }
+
+    @Test
+    public void testReadRepeatedHeader() throws IOException {
+        VulnerabilityReader reader = new NexusIQViolationsReader(
+                "src/test/resources/nexus-iq-violations-repeated-header.csv");
+        List<Map.Entry<String, Integer>> vulnerabilities = reader.readVulnerabilities();
+
+        Assert.assertEquals(2, vulnerabilities.size());
+        Assert.assertTrue(vulnerabilities.stream().anyMatch(d ->
+                d.getKey().equals("org.third.party:library-b:1.0")
+                        && d.getValue().equals(2)
+        ));
+        Assert.assertTrue(vulnerabilities.stream().anyMatch(d ->
+                d.getKey().equals("library-d:library-d:2.0")
+                        && d.getValue().equals(1)
+        ));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testReadVulnerabilitiesUnknownArtifactFormat() throws IOException {
         new NexusIQViolationsReader("src/test/resources/nexus-iq-violations-unknown.csv")
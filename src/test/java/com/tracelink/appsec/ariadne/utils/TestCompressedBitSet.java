@@ -0,0 +1,31 @@
+package com.tracelink.appsec.ariadne.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TestCompressedBitSet {
+    @Test
+    public void testUnion() {
+        CompressedBitSet set = CompressedBitSet.of(3).or(CompressedBitSet.of(70)).or(CompressedBitSet.of(100000));
+        Assert.assertEquals(3, set.cardinality());
+        Assert.assertTrue(set.get(70));
+        Assert.assertFalse(set.get(71));
+
+        List<Integer> bits = new ArrayList<>();
+        set.forEach(bits::add);
+        Assert.assertEquals(Arrays.asList(3, 70, 100000), bits);
+    }
+
+    @Test
+    public void testUnionSharesUnchangedSets() {
+        CompressedBitSet set = CompressedBitSet.of(1).or(CompressedBitSet.of(2));
+        Assert.assertSame(set, set.or(CompressedBitSet.of(2)));
+        Assert.assertSame(set, set.or(CompressedBitSet.EMPTY));
+        Assert.assertSame(set, CompressedBitSet.EMPTY.or(set));
+        Assert.assertSame(set, CompressedBitSet.of(1).or(set));
+    }
+}
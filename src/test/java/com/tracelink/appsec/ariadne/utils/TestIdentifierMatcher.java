@@ -0,0 +1,57 @@
+package com.tracelink.appsec.ariadne.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class TestIdentifierMatcher {
+    private static String randomString(Random random, int maxLength) {
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            sb.append("abc.:\u00e9".charAt(random.nextInt(6)));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testMatchesLikeContains() {
+        for (long seed = 0; seed < 300; seed++) {
+            Random random = new Random(seed);
+            List<String> identifiers = new ArrayList<>();
+            for (int i = random.nextInt(5); i > 0; i--) {
+                identifiers.add(randomString(random, 4));
+            }
+            IdentifierMatcher matcher = new IdentifierMatcher(identifiers);
+            for (int i = 0; i < 50; i++) {
+                String name = randomString(random, 12);
+                boolean expected = identifiers.stream().anyMatch(name::contains);
+                Assert.assertEquals(name, expected, matcher.matches(name));
+                // The second lookup of a group ID is answered from the cache
+                Assert.assertEquals(name, expected, matcher.matchesArtifact(name));
+                Assert.assertEquals(name, expected, matcher.matchesArtifact(name));
+            }
+        }
+    }
+
+    @Test
+    public void testIdentifierAcrossColon() {
+        IdentifierMatcher matcher = new IdentifierMatcher(Arrays.asList("org.acquired", "example:api"));
+        Assert.assertTrue(matcher.matchesArtifact("com.example:api-client"));
+        Assert.assertFalse(matcher.matchesArtifact("com.example:core"));
+        Assert.assertTrue(matcher.matchesArtifact("org.acquired.billing:core"));
+        Assert.assertFalse(matcher.matchesArtifact("org.third.party:library-a"));
+    }
+
+    @Test
+    public void testNoIdentifiers() {
+        IdentifierMatcher matcher = new IdentifierMatcher(Collections.emptyList());
+        Assert.assertFalse(matcher.matches("com.example"));
+        Assert.assertFalse(matcher.matchesArtifact("com.example:project-a"));
+    }
+}